@@ -0,0 +1,57 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+
+// List that only grows. Writers append under the list's lock; readers never lock and see every
+// element up to the size they read, because an element is stored before the size is published
+// and a grown array is fully copied before it replaces the old one.
+class AppendOnlyList<T> extends AbstractList<T> {
+    private volatile Object[] elements;
+    private volatile int size;
+
+    public AppendOnlyList() {
+        this(4);
+    }
+
+    public AppendOnlyList(int capacity) {
+        elements = new Object[Math.max(1, capacity)];
+    }
+
+    @Override
+    public synchronized boolean add(T element) {
+        Object[] current = elements;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+            elements = current;
+        }
+        current[size] = element;
+        size = size + 1;
+        return true;
+    }
+
+    // The most recently added element, or null if the list is empty
+    @SuppressWarnings("unchecked")
+    synchronized T last() {
+        return size == 0 ? null : (T) elements[size - 1];
+    }
+
+    // Drop the elements from newSize on. Readers that already read the old size may still see
+    // them, so only owners that do not read and truncate at the same time may call this.
+    synchronized void truncate(int newSize) {
+        Object[] current = elements;
+        Arrays.fill(current, Math.min(newSize, size), size, null);
+        size = Math.min(newSize, size);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        return (T) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,257 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Secondary indexes from attribute values to the rows that hold them. A value held by few rows
+// keeps an ascending posting list; once it covers more than 1 row in 32 it switches to a bitmap,
+// so common values such as a position cost one bit per row and rare ones such as an email
+// domain cost an int per row. Queries intersect the sets of their conditions: the shortest
+// posting list drives and the others are probed, or the bitmaps are ANDed a word at a time, so
+// no query scans the table. Rows must be added in ascending order by one writer at a time;
+// queries never lock and only see rows below the limit they are given.
+class AttributeIndex<A extends Enum<A>> {
+    // Posting lists shorter than this never switch to a bitmap
+    private static final int MIN_BITMAP_ROWS = 1024;
+
+    private final Map<A, ConcurrentMap<String, RowSet>> sets;
+    // Values of each attribute in the order they were first seen
+    private final Map<A, AppendOnlyList<String>> values;
+
+    public AttributeIndex(Class<A> attributes) {
+        sets = new EnumMap<>(attributes);
+        values = new EnumMap<>(attributes);
+        for (A attribute : attributes.getEnumConstants()) {
+            sets.put(attribute, new ConcurrentHashMap<>());
+            values.put(attribute, new AppendOnlyList<>());
+        }
+    }
+
+    public synchronized void add(int row, A attribute, String value) {
+        ConcurrentMap<String, RowSet> byValue = sets.get(attribute);
+        RowSet set = byValue.get(value);
+        if (set == null) {
+            set = new RowSet();
+            set.add(row);
+            byValue.put(value, set);
+            values.get(attribute).add(value);
+        } else {
+            set.add(row);
+        }
+    }
+
+    // Undo the add of the highest row holding a value. Rows must be removed highest first, and
+    // queries must not run at the same time. The value stays listed, with no rows.
+    public synchronized void remove(int row, A attribute, String value) {
+        RowSet set = sets.get(attribute).get(value);
+        if (set != null) {
+            set.remove(row);
+        }
+    }
+
+    // Distinct values of an attribute, in first-seen order
+    public List<String> values(A attribute) {
+        return Collections.unmodifiableList(values.get(attribute));
+    }
+
+    // Rows below limit matching every condition, in ascending order; no conditions match all rows
+    public int[] filter(Map<A, String> conditions, int limit) {
+        RowCollector rows = new RowCollector();
+        match(conditions, limit, rows);
+        return rows.toArray();
+    }
+
+    public int count(Map<A, String> conditions, int limit) {
+        RowCollector rows = new RowCollector();
+        rows.countOnly = true;
+        match(conditions, limit, rows);
+        return rows.size;
+    }
+
+    // Number of matching rows for each value of the grouping attribute, in first-seen order;
+    // values with no matching rows are left out
+    public Map<String, Integer> countBy(A groupBy, Map<A, String> conditions, int limit) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        Map<A, String> group = new EnumMap<>(groupBy.getDeclaringClass());
+        group.putAll(conditions);
+        String required = conditions.get(groupBy);
+        for (String value : values.get(groupBy)) {
+            if (required != null && !required.equals(value)) {
+                continue;
+            }
+            group.put(groupBy, value);
+            int count = count(group, limit);
+            if (count > 0) {
+                counts.put(value, count);
+            }
+        }
+        return counts;
+    }
+
+    private void match(Map<A, String> conditions, int limit, RowCollector out) {
+        if (conditions.isEmpty()) {
+            for (int row = 0; row < limit; row++) {
+                out.add(row);
+            }
+            return;
+        }
+        Snapshot[] snapshots = new Snapshot[conditions.size()];
+        Snapshot driver = null;
+        int n = 0;
+        for (Map.Entry<A, String> condition : conditions.entrySet()) {
+            RowSet set = sets.get(condition.getKey()).get(condition.getValue());
+            if (set == null) {
+                return;
+            }
+            Snapshot snapshot = set.snapshot(limit);
+            snapshots[n++] = snapshot;
+            if (snapshot.bits == null && (driver == null || snapshot.size < driver.size)) {
+                driver = snapshot;
+            }
+        }
+        if (driver == null) {
+            andBitmaps(snapshots, limit, out);
+            return;
+        }
+        // Walk the shortest posting list and probe every other set for each of its rows
+        next:
+        for (int i = 0; i < driver.size; i++) {
+            int row = driver.ids[i];
+            for (Snapshot other : snapshots) {
+                if (other != driver && !other.contains(row)) {
+                    continue next;
+                }
+            }
+            out.add(row);
+        }
+    }
+
+    private static void andBitmaps(Snapshot[] bitmaps, int limit, RowCollector out) {
+        int words = (limit + 63) >>> 6;
+        for (Snapshot bitmap : bitmaps) {
+            words = Math.min(words, bitmap.bits.length);
+        }
+        for (int w = 0; w < words; w++) {
+            long word = -1L;
+            for (Snapshot bitmap : bitmaps) {
+                word &= bitmap.bits[w];
+            }
+            int base = w << 6;
+            if (base + 64 > limit) {
+                word &= (1L << (limit - base)) - 1;
+            }
+            if (out.countOnly) {
+                out.size += Long.bitCount(word);
+                continue;
+            }
+            while (word != 0) {
+                out.add(base + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    // Rows holding one value: a posting list until it grows dense, then a bitmap
+    private static final class RowSet {
+        private final IntPostings ids = new IntPostings();
+        private volatile long[] bits;
+
+        // Only called under the index's lock
+        void add(int row) {
+            long[] current = bits;
+            if (current == null) {
+                ids.add(row);
+                if (ids.size() >= MIN_BITMAP_ROWS && ids.size() > (row + 1) / 32) {
+                    current = new long[(row >>> 6) + 1];
+                    int[] rows = ids.ids();
+                    for (int i = 0; i < ids.size(); i++) {
+                        current[rows[i] >>> 6] |= 1L << rows[i];
+                    }
+                    bits = current;
+                }
+                return;
+            }
+            if ((row >>> 6) >= current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, (row >>> 6) + 1));
+                // Publish the grown copy before setting the new bit, so the bit is never lost
+                bits = current;
+            }
+            current[row >>> 6] |= 1L << row;
+        }
+
+        // Only called under the index's lock
+        void remove(int row) {
+            long[] current = bits;
+            if (current == null) {
+                ids.removeLast(row);
+            } else if ((row >>> 6) < current.length) {
+                current[row >>> 6] &= ~(1L << row);
+            }
+        }
+
+        Snapshot snapshot(int limit) {
+            long[] bitmap = bits;
+            if (bitmap != null) {
+                return new Snapshot(null, 0, bitmap);
+            }
+            int size = ids.size();
+            int[] rows = ids.ids();
+            return new Snapshot(rows, IntPostings.countBelow(rows, size, limit), null);
+        }
+    }
+
+    // A set as seen by one query, with a cursor for probing posting lists in ascending order
+    private static final class Snapshot {
+        final int[] ids;
+        final int size;
+        final long[] bits;
+        private int from;
+
+        Snapshot(int[] ids, int size, long[] bits) {
+            this.ids = ids;
+            this.size = size;
+            this.bits = bits;
+        }
+
+        // Rows must be probed in ascending order; the cursor gallops forward from the last probe
+        boolean contains(int row) {
+            if (bits != null) {
+                return (row >>> 6) < bits.length && (bits[row >>> 6] & (1L << row)) != 0;
+            }
+            int step = 1;
+            int high = from;
+            while (high < size && ids[high] < row) {
+                from = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int at = Arrays.binarySearch(ids, from, Math.min(high + 1, size), row);
+            from = at >= 0 ? at : -at - 1;
+            return at >= 0;
+        }
+    }
+
+    private static final class RowCollector {
+        boolean countOnly;
+        int[] rows = new int[16];
+        int size;
+
+        void add(int row) {
+            if (!countOnly) {
+                if (size == rows.length) {
+                    rows = Arrays.copyOf(rows, size * 2);
+                }
+                rows[size] = row;
+            }
+            size++;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// A Club_Form line (id,first_name,last_name,email,gender) parsed once into a collation key
+class ClubRecord {
+    // Inputs at least this large are sorted with Arrays.parallelSort
+    static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+    static final Comparator<ClubRecord> ORDER = Comparator.comparingLong(ClubRecord::getNumber)
+            .thenComparing(ClubRecord::getKey)
+            .thenComparingInt(ClubRecord::getSequence);
+
+    private final String line;
+    private final String key;
+    private final long number;
+    private final int sequence;
+
+    public ClubRecord(String line, int sequence, RecordSortKey sortKey) {
+        this.line = line;
+        this.sequence = sequence;
+        switch (sortKey) {
+            case ID:
+                this.number = parseId(field(line, 0));
+                this.key = "";
+                break;
+            case LAST_NAME:
+                this.number = 0;
+                this.key = fold(field(line, 2) + " " + field(line, 1));
+                break;
+            case EMAIL:
+                this.number = 0;
+                this.key = fold(field(line, 3));
+                break;
+            default:
+                this.number = 0;
+                this.key = fold(field(line, 1) + " " + field(line, 2));
+        }
+    }
+
+    // Rebuild a record whose key was already computed, as when reading back a sorted run
+    ClubRecord(String line, String key, long number, int sequence) {
+        this.line = line;
+        this.key = key;
+        this.number = number;
+        this.sequence = sequence;
+    }
+
+    // Return the index-th comma separated field, or an empty string if the line is short
+    static String field(String line, int index) {
+        int start = 0;
+        for (int i = 0; i < index; i++) {
+            start = line.indexOf(',', start) + 1;
+            if (start == 0) {
+                return "";
+            }
+        }
+        int end = line.indexOf(',', start);
+        return end < 0 ? line.substring(start) : line.substring(start, end);
+    }
+
+    // Non-numeric ids, such as the header line, sort after every real id
+    private static long parseId(String id) {
+        try {
+            return Long.parseLong(id.trim());
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    // Fold case per character exactly as String.compareToIgnoreCase does
+    static String fold(String s) {
+        char[] chars = s.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    public String getLine() {
+        return line;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getNumber() {
+        return number;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    // Parse all lines and sort them, in parallel for large inputs
+    static ClubRecord[] sort(List<String> lines, RecordSortKey sortKey, boolean parallel) {
+        ClubRecord[] records = new ClubRecord[lines.size()];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = new ClubRecord(lines.get(i), i, sortKey);
+        }
+        if (parallel && records.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(records, ORDER);
+        } else {
+            Arrays.sort(records, ORDER);
+        }
+        return records;
+    }
+
+    // Streaming selection that keeps at most k records, however many lines are offered
+    static class TopK {
+        private static final int INITIAL_HEAP_CAPACITY = 1024;
+
+        private final int k;
+        private final RecordSortKey sortKey;
+        private final PriorityQueue<ClubRecord> heap;
+        private int sequence;
+
+        TopK(int k, RecordSortKey sortKey) {
+            this.k = k;
+            this.sortKey = sortKey;
+            // k comes from the caller and may far exceed the lines offered; let the heap grow
+            this.heap = new PriorityQueue<>(Math.max(1, Math.min(k, INITIAL_HEAP_CAPACITY)), ORDER.reversed());
+        }
+
+        void offer(String line) {
+            if (k <= 0) {
+                sequence++;
+                return;
+            }
+            ClubRecord record = new ClubRecord(line, sequence++, sortKey);
+            if (heap.size() < k) {
+                heap.add(record);
+            } else if (ORDER.compare(record, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(record);
+            }
+        }
+
+        // Number of lines offered so far
+        int offered() {
+            return sequence;
+        }
+
+        // The selected records in sorted order
+        List<ClubRecord> result() {
+            List<ClubRecord> result = new ArrayList<>(heap);
+            result.sort(ORDER);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Non-interactive front end that runs a file of commands against one roster, one per line:
+//
+//   add <name>,<coach type>,<team>                          Add Player, as the menu does
+//   add <name>,<position>,<coach name>,<coach type>,<team>  Add Player with every field
+//   generate <count> [seed]                                 Generate Random Players
+//   search <name>                                           Search for People by Name
+//   sort [full_name|last_name|id|email] [k] [file]          Read, Sort, and Display Records
+//
+// Blank lines and lines starting with # are skipped. Consecutive adds are applied in groups of
+// up to BATCH_SIZE, each group made visible and journaled in one step, so an intake of thousands
+// of players costs a few journal syncs rather than one per player. A pending group is applied
+// before any other command, so searches and sorts see every add above them. Results go through
+// one buffered writer and end with the throughput of the whole run.
+class CommandBatch {
+    static final int BATCH_SIZE = 4096;
+
+    private final RugbyClubGame game;
+    private final Writer out;
+    private final List<String[]> pending = new ArrayList<>();
+    private final StringBuilder text = new StringBuilder();
+    private long commands;
+    private long requested;
+    private long added;
+
+    public CommandBatch(RugbyClubGame game, Writer out) {
+        this.game = game;
+        this.out = out;
+    }
+
+    // Run every command in the reader, then report throughput; a bad line is reported and skipped
+    public void run(BufferedReader commandLines) throws IOException {
+        long start = System.nanoTime();
+        String line;
+        for (int number = 1; (line = commandLines.readLine()) != null; number++) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                execute(line);
+                commands++;
+            } catch (IllegalArgumentException e) {
+                text.append("Line ").append(number).append(": ").append(e.getMessage()).append(System.lineSeparator());
+            }
+            if (text.length() >= 1 << 16) {
+                write();
+            }
+        }
+        flushAdds();
+        text.append(game.importSummary());
+        report(System.nanoTime() - start);
+        write();
+        out.flush();
+    }
+
+    private void execute(String line) {
+        int space = line.indexOf(' ');
+        String command = (space < 0 ? line : line.substring(0, space)).toLowerCase(Locale.ROOT);
+        String argument = space < 0 ? "" : line.substring(space + 1).trim();
+        if (command.equals("add")) {
+            pending.add(playerRow(argument));
+            if (pending.size() >= BATCH_SIZE) {
+                flushAdds();
+            }
+            return;
+        }
+        flushAdds();
+        switch (command) {
+            case "generate":
+                generate(argument);
+                break;
+            case "search":
+                search(argument);
+                break;
+            case "sort":
+                sort(argument);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command '" + command + "'");
+        }
+    }
+
+    // Name, position, coach name, coach type and team, filling in the menu's defaults
+    private static String[] playerRow(String argument) {
+        String[] fields = argument.split(",", -1);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+        }
+        if (fields.length == 3) {
+            return new String[] {fields[0], "Player Position", "Coach", fields[1], fields[2]};
+        }
+        if (fields.length == 5) {
+            return fields;
+        }
+        throw new IllegalArgumentException("Expected 3 or 5 comma-separated fields: " + argument);
+    }
+
+    private void flushAdds() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        requested += pending.size();
+        added += game.addPlayers(pending);
+        pending.clear();
+    }
+
+    private void generate(String argument) {
+        String[] words = words(argument);
+        if (words.length == 0 || words.length > 2) {
+            throw new IllegalArgumentException("Usage: generate <count> [seed]");
+        }
+        int count = Integer.parseInt(words[0]);
+        if (count < 1) {
+            throw new IllegalArgumentException("Usage: generate <count> [seed]");
+        }
+        long seed = words.length > 1 ? Long.parseLong(words[1]) : System.nanoTime();
+        int generated = game.generateRandomPlayers(count, seed);
+        requested += count;
+        added += generated;
+        text.append("Generated ").append(generated).append(" players.").append(System.lineSeparator());
+    }
+
+    private void search(String name) {
+        List<Player> found = game.search(name);
+        if (found.isEmpty()) {
+            // Fall back to names a typo or two away
+            found = game.searchFuzzy(name, NameIndex.typoBound(name));
+            if (found.isEmpty()) {
+                text.append("No players found with the name '").append(name).append("'.").append(System.lineSeparator());
+                return;
+            }
+            text.append("No exact match for '").append(name).append("'. Closest names:").append(System.lineSeparator());
+        } else {
+            text.append("Found ").append(found.size()).append(" players named '").append(name).append("':").append(System.lineSeparator());
+        }
+        new Pager<>(found, found.size()).render(text, RugbyClubGame.PLAYER_LINE);
+    }
+
+    private void sort(String argument) {
+        String[] words = words(argument);
+        if (words.length > 3) {
+            throw new IllegalArgumentException("Usage: sort [full_name|last_name|id|email] [k] [file]");
+        }
+        RecordSortKey sortKey;
+        try {
+            sortKey = RecordSortKey.valueOf(words.length > 0 ? words[0].toUpperCase(Locale.ROOT) : "FULL_NAME");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort key '" + words[0] + "'");
+        }
+        int k = words.length > 1 ? Integer.parseInt(words[1]) : 20;
+        String filename = words.length > 2 ? words[2] : "Club_Form.txt";
+        List<ClubRecord> sorted;
+        try {
+            sorted = game.topRecords(filename, k, sortKey);
+        } catch (IOException | UncheckedIOException e) {
+            text.append("Error reading file: ").append(e.getMessage()).append(System.lineSeparator());
+            return;
+        }
+        text.append("First ").append(k).append(" records by ").append(sortKey).append(':').append(System.lineSeparator());
+        new Pager<>(sorted, Math.max(1, k)).render(text, RugbyClubGame.NUMBERED_LINE);
+    }
+
+    private void report(long nanos) {
+        double seconds = Math.max(nanos, 1) / 1e9;
+        text.append(String.format("Ran %d commands in %.1f ms: %.0f commands/s. Added %d of %d players: %.0f players/s.%n",
+                commands, nanos / 1e6, commands / seconds, added, requested, added / seconds));
+    }
+
+    private static String[] words(String argument) {
+        return argument.isEmpty() ? new String[0] : argument.split("\\s+");
+    }
+
+    private void write() throws IOException {
+        out.append(text);
+        text.setLength(0);
+    }
+
+    // Usage: java RugbyClubGame --batch <filename> <commands> [output]; commands may be - for stdin
+    public static void main(String[] args) {
+        String filename = args[1];
+        RugbyClubGame game = new RugbyClubGame();
+        game.deduplicateImports(true);
+        game.readFile(filename);
+        game.openJournal(filename);
+        try (BufferedReader commandLines = args[2].equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(args[2]), StandardCharsets.UTF_8)) {
+            Writer out = args.length > 3
+                    ? Files.newBufferedWriter(Paths.get(args[3]), StandardCharsets.UTF_8)
+                    : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            try {
+                new CommandBatch(game, out).run(commandLines);
+            } finally {
+                if (args.length > 3) {
+                    out.close();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error running commands: " + e.getMessage());
+        } finally {
+            game.closeJournal();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Single-pass duplicate filter for imported rows. A row is a name plus an identity (an email,
+// or a player's position, coach and team). Exact duplicates after normalizing case and spacing
+// are caught through a 64-bit fingerprint per row kept in an open-addressing set, which is never
+// trimmed: it grows linearly with the distinct rows imported, at 16 to 32 bytes each whatever the
+// row length, and only remove gives slots back. Optionally, rows are also blocked
+// on the start of their first and last names and compared with the few most recent rows of the
+// same block; a row within one edit of one of them in both name and identity is reported as a
+// possible near-duplicate but still kept.
+class Deduplicator {
+    // Rows remembered per block for near-duplicate checks
+    static final int BLOCK_SIZE = 8;
+    // Near-duplicate pairs kept for the report
+    static final int MAX_EXAMPLES = 20;
+
+    private final boolean findNearDuplicates;
+    private long[] fingerprints = new long[1 << 10];
+    private int distinct;
+    private final Map<String, Block> blocks = new HashMap<>();
+    private long duplicates;
+    private long nearDuplicates;
+    // Totals at the last summary, so each summary covers one import
+    private long reportedDuplicates;
+    private long reportedNearDuplicates;
+    private final List<String> examples = new ArrayList<>();
+
+    public Deduplicator(boolean findNearDuplicates) {
+        this.findNearDuplicates = findNearDuplicates;
+    }
+
+    // Lower case, trimmed, with runs of whitespace collapsed to one space
+    static String normalize(String s) {
+        StringBuilder out = new StringBuilder(s.length());
+        boolean space = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = out.length() > 0;
+            } else {
+                if (space) {
+                    out.append(' ');
+                    space = false;
+                }
+                out.append(c);
+            }
+        }
+        return out.toString().toLowerCase(Locale.ROOT);
+    }
+
+    // Record a row and return false if the same row was seen before
+    public synchronized boolean add(String name, String identity) {
+        String normalizedName = normalize(name);
+        String normalizedIdentity = normalize(identity);
+        if (!insert(fingerprint(normalizedName, normalizedIdentity))) {
+            duplicates++;
+            return false;
+        }
+        if (findNearDuplicates) {
+            checkBlock(normalizedName, normalizedIdentity);
+        }
+        return true;
+    }
+
+    // Forget a row that was added, e.g. because its part of the file is being read again
+    public synchronized void remove(String name, String identity) {
+        long fingerprint = fingerprint(normalize(name), normalize(identity));
+        int mask = fingerprints.length - 1;
+        int slot = slot(fingerprints, fingerprint);
+        if (fingerprints[slot] != fingerprint) {
+            return;
+        }
+        // Shift later entries of the probe run back, so every entry stays reachable from its home
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            long moved = fingerprints[next];
+            if (moved == 0) {
+                break;
+            }
+            int home = (int) moved & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                fingerprints[slot] = moved;
+                slot = next;
+            }
+        }
+        fingerprints[slot] = 0;
+        distinct--;
+    }
+
+    // Findings since the last summary, or an empty string if every row since was distinct
+    public synchronized String summary() {
+        StringBuilder text = new StringBuilder();
+        long skipped = duplicates - reportedDuplicates;
+        long near = nearDuplicates - reportedNearDuplicates;
+        if (skipped > 0) {
+            text.append("Skipped ").append(skipped).append(" duplicate rows.").append(System.lineSeparator());
+        }
+        if (near > 0) {
+            text.append("Found ").append(near).append(" possible near-duplicates:").append(System.lineSeparator());
+            for (String example : examples) {
+                text.append("  ").append(example).append(System.lineSeparator());
+            }
+        }
+        reportedDuplicates = duplicates;
+        reportedNearDuplicates = nearDuplicates;
+        examples.clear();
+        return text.toString();
+    }
+
+    private void checkBlock(String name, String identity) {
+        Block block = blocks.computeIfAbsent(blockKey(name), k -> new Block());
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            String seenName = block.names[i];
+            if (seenName != null && withinOneEdit(name, seenName) && withinOneEdit(identity, block.identities[i])) {
+                nearDuplicates++;
+                if (examples.size() < MAX_EXAMPLES) {
+                    examples.add(name + " / " + identity + "  ~  " + seenName + " / " + block.identities[i]);
+                }
+                break;
+            }
+        }
+        // Keep the most recent rows of the block, overwriting the oldest
+        block.names[block.next] = name;
+        block.identities[block.next] = identity;
+        block.next = (block.next + 1) % BLOCK_SIZE;
+    }
+
+    // True if one insertion, deletion or substitution at most turns a into b, in a single scan
+    static boolean withinOneEdit(String a, String b) {
+        if (a.length() < b.length()) {
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+        if (a.length() - b.length() > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        // Past the first difference, the rest must match after skipping one character of a,
+        // or one of each if the lengths are equal
+        int skipB = a.length() == b.length() ? 1 : 0;
+        return i >= b.length() || a.regionMatches(i + 1, b, i + skipB, b.length() - i - skipB);
+    }
+
+    // The most recent rows of one block, as a ring
+    private static final class Block {
+        final String[] names = new String[BLOCK_SIZE];
+        final String[] identities = new String[BLOCK_SIZE];
+        int next;
+    }
+
+    // First letter of the first name and first two letters of the last name
+    private static String blockKey(String name) {
+        int space = name.lastIndexOf(' ');
+        String last = space < 0 ? name : name.substring(space + 1);
+        return (name.isEmpty() ? "" : name.substring(0, 1)) + "|" + last.substring(0, Math.min(2, last.length()));
+    }
+
+    // FNV-1a over both fields, finished with the SplitMix64 mixer to spread the bits
+    private static long fingerprint(String name, String identity) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            h = (h ^ name.charAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ 0xFFFF) * 0x100000001b3L;
+        for (int i = 0; i < identity.length(); i++) {
+            h = (h ^ identity.charAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        h = h ^ (h >>> 31);
+        // Zero marks an empty slot
+        return h == 0 ? 1 : h;
+    }
+
+    // Add the fingerprint to the set and return false if it was already there
+    private boolean insert(long fingerprint) {
+        if (distinct * 2 >= fingerprints.length) {
+            long[] old = fingerprints;
+            fingerprints = new long[old.length * 2];
+            for (long f : old) {
+                if (f != 0) {
+                    fingerprints[slot(fingerprints, f)] = f;
+                }
+            }
+        }
+        int slot = slot(fingerprints, fingerprint);
+        if (fingerprints[slot] == fingerprint) {
+            return false;
+        }
+        fingerprints[slot] = fingerprint;
+        distinct++;
+        return true;
+    }
+
+    // The slot holding the fingerprint, or the empty slot where it belongs
+    private static int slot(long[] table, long fingerprint) {
+        int mask = table.length - 1;
+        int slot = (int) fingerprint & mask;
+        while (table[slot] != 0 && table[slot] != fingerprint) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
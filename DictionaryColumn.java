@@ -0,0 +1,82 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Column of low-cardinality values stored as one int code per row plus a dictionary of distinct values.
+// One writer at a time may add while readers get rows below a size published by the owner.
+class DictionaryColumn<T> {
+    private volatile Object[] dictionary;
+    private int dictionarySize;
+    private final Map<T, Integer> codes;
+    private volatile int[] rows;
+    private int size;
+
+    public DictionaryColumn() {
+        this(16);
+    }
+
+    public DictionaryColumn(int capacity) {
+        dictionary = new Object[4];
+        codes = new HashMap<>();
+        rows = new int[Math.max(1, capacity)];
+    }
+
+    // Append a value and return its row
+    public int add(T value) {
+        return addCode(encode(value));
+    }
+
+    // Append a value that is already in the dictionary by its code and return its row
+    public int addCode(int code) {
+        int[] current = rows;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            rows = current;
+        }
+        current[size] = code;
+        return size++;
+    }
+
+    // Return the code of a value, adding it to the dictionary on first use
+    public int encode(T value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionarySize;
+            Object[] current = dictionary;
+            if (code == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[code] = value;
+            dictionary = current;
+            dictionarySize++;
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int row) {
+        int code = rows[row];
+        return (T) dictionary[code];
+    }
+
+    public int getCode(int row) {
+        return rows[row];
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<T> getDictionary() {
+        return Collections.unmodifiableList(Arrays.asList((T[]) Arrays.copyOf(dictionary, dictionarySize)));
+    }
+
+    // Drop the rows from newSize on; their values stay in the dictionary
+    public void truncate(int newSize) {
+        size = Math.min(newSize, size);
+    }
+
+    public int size() {
+        return size;
+    }
+}
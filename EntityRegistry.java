@@ -0,0 +1,56 @@
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Interned, hash-keyed lookup of coaches and teams so each roster line resolves in O(1)
+class EntityRegistry {
+    private final ConcurrentMap<CoachKey, Coach> coaches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Team> teams = new ConcurrentHashMap<>();
+
+    // Return the canonical coach for this name and type, creating it on first use
+    public Coach coach(String coachName, String coachType) {
+        return coaches.computeIfAbsent(new CoachKey(coachName, coachType), key -> new Coach(key.name, key.type));
+    }
+
+    // Return the canonical team for this name, creating it on first use
+    public Team team(String teamName) {
+        return teams.computeIfAbsent(teamName, Team::new);
+    }
+
+    public Collection<Coach> getCoaches() {
+        return coaches.values();
+    }
+
+    public Collection<Team> getTeams() {
+        return teams.values();
+    }
+
+    private static final class CoachKey {
+        private final String name;
+        private final String type;
+        private final int hash;
+
+        CoachKey(String name, String type) {
+            this.name = name;
+            this.type = type;
+            this.hash = 31 * name.hashCode() + type.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CoachKey)) {
+                return false;
+            }
+            CoachKey other = (CoachKey) o;
+            return name.equals(other.name) && type.equals(other.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
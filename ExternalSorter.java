@@ -0,0 +1,380 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Sorts Club_Form files too large for the heap. Lines are gathered into runs that fit the
+// memory budget, sorted and written to a temporary directory, then merged with a heap that
+// holds the next record of every run. A run stores each record's line number, its sort key
+// front-coded against the previous key and the line itself, so merging never parses a line
+// again and ties come out in file order, exactly as ClubRecord.sort orders them.
+class ExternalSorter {
+    static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+    // Runs merged at once; beyond this, runs are first merged in groups, in parallel if enabled
+    static final int MAX_FAN_IN = 64;
+    // Rough heap cost of a record besides its characters: the record, two strings and their arrays
+    private static final int RECORD_OVERHEAD = 128;
+    private static final int RUN_BUFFER_SIZE = 1 << 16;
+
+    private final RecordSortKey sortKey;
+    private final long budget;
+    private final Path tempDirectory;
+    private final boolean parallel;
+
+    public ExternalSorter(RecordSortKey sortKey, long budget, Path tempDirectory, boolean parallel) {
+        this.sortKey = sortKey;
+        this.budget = budget;
+        this.tempDirectory = tempDirectory;
+        this.parallel = parallel;
+    }
+
+    // Write every line of the input to the output in sort order and return the number of lines
+    public long sort(String input, String output) throws IOException {
+        long lines = 0;
+        try (Cursor cursor = open(input);
+             BufferedWriter out = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+            while (cursor.hasNext()) {
+                out.write(cursor.next().getLine());
+                out.write('\n');
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    // Sort the input into runs and return a cursor over the merged records; closing the
+    // cursor deletes the runs
+    public Cursor open(String input) throws IOException {
+        Path directory = Files.createTempDirectory(tempDirectory, "club-sort");
+        try {
+            return new Cursor(directory, reduce(createRuns(input, directory), directory));
+        } catch (IOException | RuntimeException e) {
+            delete(directory);
+            throw e;
+        }
+    }
+
+    private List<Path> createRuns(String input, Path directory) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<ClubRecord> records = new ArrayList<>();
+        long bytes = 0;
+        int sequence = 0;
+        try (BufferedReader br = Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+                ClubRecord record = new ClubRecord(line, sequence++, sortKey);
+                records.add(record);
+                bytes += RECORD_OVERHEAD + 2L * (line.length() + record.getKey().length());
+                if (bytes >= budget) {
+                    runs.add(writeRun(records, directory, runs.size()));
+                    records.clear();
+                    bytes = 0;
+                }
+            }
+        }
+        if (!records.isEmpty() || runs.isEmpty()) {
+            runs.add(writeRun(records, directory, runs.size()));
+        }
+        return runs;
+    }
+
+    private Path writeRun(List<ClubRecord> records, Path directory, int number) throws IOException {
+        ClubRecord[] sorted = records.toArray(new ClubRecord[0]);
+        if (parallel && sorted.length >= ClubRecord.PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(sorted, ClubRecord.ORDER);
+        } else {
+            Arrays.sort(sorted, ClubRecord.ORDER);
+        }
+        Path run = directory.resolve("run-0-" + number);
+        try (RunWriter writer = new RunWriter(run, sorted.length)) {
+            for (ClubRecord record : sorted) {
+                writer.write(record);
+            }
+        }
+        return run;
+    }
+
+    // Merge groups of runs until few enough remain for one final merge
+    private List<Path> reduce(List<Path> runs, Path directory) throws IOException {
+        for (int pass = 1; runs.size() > MAX_FAN_IN; pass++) {
+            List<Path> current = runs;
+            int passNumber = pass;
+            IntStream groups = IntStream.range(0, (current.size() + MAX_FAN_IN - 1) / MAX_FAN_IN);
+            try {
+                runs = (parallel ? groups.parallel() : groups).mapToObj(group -> {
+                    List<Path> inputs = current.subList(group * MAX_FAN_IN, Math.min(current.size(), (group + 1) * MAX_FAN_IN));
+                    Path run = directory.resolve("run-" + passNumber + "-" + group);
+                    try {
+                        mergeRuns(inputs, run);
+                        for (Path merged : inputs) {
+                            Files.delete(merged);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return run;
+                }).collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return runs;
+    }
+
+    private void mergeRuns(List<Path> inputs, Path output) throws IOException {
+        long count = 0;
+        for (Path input : inputs) {
+            try (RunReader reader = new RunReader(input)) {
+                count += reader.remaining;
+            }
+        }
+        try (Merge merge = new Merge(inputs); RunWriter writer = new RunWriter(output, count)) {
+            while (merge.hasNext()) {
+                writer.write(merge.next());
+            }
+        }
+    }
+
+    private static void delete(Path directory) {
+        try {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.collect(Collectors.toList())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            System.err.println("Could not remove sort runs in " + directory + ": " + e.getMessage());
+        }
+    }
+
+    // Merged records of the remaining runs, in sort order
+    class Cursor implements Iterator<ClubRecord>, Closeable {
+        private final Path directory;
+        private final Merge merge;
+
+        Cursor(Path directory, List<Path> runs) throws IOException {
+            this.directory = directory;
+            this.merge = new Merge(runs);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return merge.hasNext();
+        }
+
+        @Override
+        public ClubRecord next() {
+            return merge.next();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                merge.close();
+            } finally {
+                delete(directory);
+            }
+        }
+    }
+
+    // K-way merge: a heap of run readers ordered by each reader's current record
+    private class Merge implements Iterator<ClubRecord>, Closeable {
+        private final List<RunReader> readers = new ArrayList<>();
+        private final PriorityQueue<RunReader> heap;
+
+        Merge(List<Path> runs) throws IOException {
+            heap = new PriorityQueue<>(Math.max(1, runs.size()), Comparator.comparing(RunReader::current, ClubRecord.ORDER));
+            try {
+                for (Path run : runs) {
+                    RunReader reader = new RunReader(run);
+                    readers.add(reader);
+                    if (reader.advance()) {
+                        heap.add(reader);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public ClubRecord next() {
+            RunReader reader = heap.poll();
+            if (reader == null) {
+                throw new NoSuchElementException();
+            }
+            ClubRecord record = reader.current();
+            try {
+                if (reader.advance()) {
+                    heap.add(reader);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    // Run layout: a record count, then per record the line number, the id when sorting by id,
+    // the key as the length shared with the previous key plus the rest, and the line
+    private class RunWriter implements Closeable {
+        private final DataOutputStream out;
+        private String previousKey = "";
+
+        RunWriter(Path run, long count) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), RUN_BUFFER_SIZE));
+            writeVarLong(out, count);
+        }
+
+        void write(ClubRecord record) throws IOException {
+            writeVarLong(out, record.getSequence());
+            if (sortKey == RecordSortKey.ID) {
+                writeVarLong(out, record.getNumber());
+            }
+            String key = record.getKey();
+            int shared = sharedPrefix(previousKey, key);
+            writeVarLong(out, shared);
+            writeString(out, key.substring(shared));
+            writeString(out, record.getLine());
+            previousKey = key;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private class RunReader implements Closeable {
+        private final DataInputStream in;
+        private long remaining;
+        private ClubRecord current;
+
+        RunReader(Path run) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), RUN_BUFFER_SIZE));
+            remaining = readVarLong(in);
+        }
+
+        ClubRecord current() {
+            return current;
+        }
+
+        // Read the next record, returning false once the run is exhausted
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                current = null;
+                return false;
+            }
+            remaining--;
+            int sequence = (int) readVarLong(in);
+            long number = sortKey == RecordSortKey.ID ? readVarLong(in) : 0;
+            String previousKey = current == null ? "" : current.getKey();
+            int shared = (int) readVarLong(in);
+            String key = previousKey.substring(0, shared) + readString(in);
+            current = new ClubRecord(readString(in), key, number, sequence);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // Shared prefix length that does not split a surrogate pair
+    private static int sharedPrefix(String a, String b) {
+        int limit = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < limit && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (i > 0 && Character.isHighSurrogate(a.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Seven bits per byte, low bits first, high bit set on every byte but the last
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new EOFException("Malformed length in sort run");
+    }
+
+    // Usage: java ExternalSorter <input> <output> [full_name|last_name|id|email] [budget MB]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java ExternalSorter <input> <output> [full_name|last_name|id|email] [budget MB]");
+            System.exit(1);
+        }
+        RecordSortKey sortKey = args.length > 2 ? RecordSortKey.valueOf(args[2].toUpperCase(Locale.ROOT)) : RecordSortKey.FULL_NAME;
+        long budget = args.length > 3 ? Long.parseLong(args[3]) * 1024 * 1024 : DEFAULT_BUDGET;
+        Path tempDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+        long start = System.nanoTime();
+        long lines = new ExternalSorter(sortKey, budget, tempDirectory, true).sort(args[0], args[1]);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("Sorted %d lines of %s into %s in %d ms.%n", lines, args[0], args[1], millis);
+    }
+}
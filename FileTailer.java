@@ -0,0 +1,173 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+// Follows a file that is appended to or edited while its rows are loaded. The bytes handed over
+// so far are remembered as one CRC32 per 64 KB block. A change that leaves the file's size,
+// modification time and identity as they were is ignored without reading anything. The same file
+// grown while its last consumed block stayed the same was appended to, and only the new lines
+// are handed over. Otherwise, as when an editor saved a new file in its place, the blocks are
+// compared from the start; the listener rewinds to a line at or before the first block that
+// differs and the file is handed over again from there. An edit written in place before the
+// last block together with an append is therefore taken for the append alone. Only complete
+// lines are handed over, so a line still being written waits for its line break. Changes are
+// reported by a WatchService on the file's directory and applied when the owner polls, on its
+// own thread.
+class FileTailer implements Closeable {
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    interface Listener {
+        // Forget what was read at or after offset and return the start of the line from which
+        // reading resumes, at or before offset
+        long rewind(long offset) throws IOException;
+
+        // Read the complete lines in [start, end)
+        void read(long start, long end) throws IOException;
+    }
+
+    private final Path path;
+    private final WatchService watcher;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_SIZE);
+    private final CRC32 crc = new CRC32();
+    // CRC32 of each block of [0, consumed); the last block may be partial
+    private long[] checksums = new long[16];
+    private long consumed;
+    // The file as last seen: its size, modification time and identity (null if the file system
+    // has none, in which case the file is assumed to stay the same file)
+    private long seenSize = -1;
+    private FileTime seenModified;
+    private Object seenKey;
+
+    public FileTailer(String filename) throws IOException {
+        path = Paths.get(filename).toAbsolutePath().normalize();
+        watcher = FileSystems.getDefault().newWatchService();
+        path.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    // Apply the changes reported since the last poll, if any; returns true if lines were handed over
+    public boolean poll(Listener listener) throws IOException {
+        boolean changed = false;
+        WatchKey key;
+        while ((key = watcher.poll()) != null) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || path.getFileName().equals(event.context());
+            }
+            key.reset();
+        }
+        return changed && update(listener);
+    }
+
+    // Bring the listener up to date with the file whether or not a change was reported
+    public boolean update(Listener listener) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Object key = attributes.fileKey();
+        boolean sameFile = key == null || key.equals(seenKey);
+        if (sameFile && attributes.size() == seenSize && attributes.lastModifiedTime().equals(seenModified)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long from = consumed;
+            int lastBlock = (int) ((consumed - 1) / BLOCK_SIZE);
+            boolean appended = consumed == 0 || sameFile && size > consumed && matches(channel, lastBlock);
+            long changed = appended ? consumed : firstDifference(channel);
+            boolean rewound = changed < consumed;
+            if (rewound) {
+                consumed = listener.rewind(changed);
+                from = consumed;
+            }
+            long end = lastLineEnd(channel, consumed, size);
+            if (end > consumed) {
+                listener.read(consumed, end);
+                consumed = end;
+            }
+            record(channel, from, consumed);
+            seenSize = size;
+            seenModified = attributes.lastModifiedTime();
+            seenKey = key;
+            return rewound || end > from;
+        }
+    }
+
+    // Start of the first block that differs from what was handed over, or consumed if none does
+    private long firstDifference(FileChannel channel) throws IOException {
+        int blocks = (int) ((consumed + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        for (int block = 0; block < blocks; block++) {
+            if (!matches(channel, block)) {
+                return (long) block * BLOCK_SIZE;
+            }
+        }
+        return consumed;
+    }
+
+    private boolean matches(FileChannel channel, int block) throws IOException {
+        long start = (long) block * BLOCK_SIZE;
+        long end = Math.min(start + BLOCK_SIZE, consumed);
+        return channel.size() >= end && checksum(channel, start, end) == checksums[block];
+    }
+
+    // Recompute the checksums of the blocks from the one holding from up to end
+    private void record(FileChannel channel, long from, long end) throws IOException {
+        int blocks = (int) ((end + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        if (blocks > checksums.length) {
+            checksums = Arrays.copyOf(checksums, Math.max(blocks, checksums.length * 2));
+        }
+        for (int block = (int) (from / BLOCK_SIZE); block < blocks; block++) {
+            long start = (long) block * BLOCK_SIZE;
+            checksums[block] = checksum(channel, start, Math.min(start + BLOCK_SIZE, end));
+        }
+    }
+
+    private long checksum(FileChannel channel, long start, long end) throws IOException {
+        crc.reset();
+        buffer.clear().limit((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                return -1;
+            }
+        }
+        buffer.flip();
+        crc.update(buffer);
+        return crc.getValue();
+    }
+
+    // Offset just past the last line break in [from, size), or from if there is none
+    private long lastLineEnd(FileChannel channel, long from, long size) throws IOException {
+        long end = size;
+        while (end > from) {
+            long start = Math.max(from, end - BLOCK_SIZE);
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return from;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watcher.close();
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.Arrays;
+
+// Column of case-folded sort keys packed back to back in one char array, with one offset per
+// row. Each character is folded the way compareToIgnoreCase compares it, so comparing two keys
+// char by char gives the same order without folding or allocating anything per comparison.
+// One writer at a time may add while readers compare rows below a size published by the owner.
+class FoldedKeyColumn {
+    private volatile char[] data;
+    private volatile int[] offsets;
+    private int size;
+
+    public FoldedKeyColumn() {
+        this(16);
+    }
+
+    public FoldedKeyColumn(int capacity) {
+        data = new char[Math.max(16, capacity * 8)];
+        offsets = new int[Math.max(1, capacity) + 1];
+    }
+
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    // Append the folded key of a value and return its row
+    public int add(String value) {
+        int[] currentOffsets = offsets;
+        if (size + 1 == currentOffsets.length) {
+            currentOffsets = Arrays.copyOf(currentOffsets, currentOffsets.length * 2);
+            offsets = currentOffsets;
+        }
+        int start = currentOffsets[size];
+        char[] currentData = data;
+        if (start + value.length() > currentData.length) {
+            currentData = Arrays.copyOf(currentData, Math.max(currentData.length * 2, start + value.length()));
+            data = currentData;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            currentData[start + i] = fold(value.charAt(i));
+        }
+        currentOffsets[size + 1] = start + value.length();
+        return size++;
+    }
+
+    // Same sign as compareToIgnoreCase on the original values
+    public int compare(int row, int other) {
+        char[] keys = data;
+        int[] currentOffsets = offsets;
+        int a = currentOffsets[row];
+        int aEnd = currentOffsets[row + 1];
+        int b = currentOffsets[other];
+        int bEnd = currentOffsets[other + 1];
+        int end = a + Math.min(aEnd - a, bEnd - b);
+        for (; a < end; a++, b++) {
+            if (keys[a] != keys[b]) {
+                return keys[a] - keys[b];
+            }
+        }
+        return (aEnd - a) - (bEnd - b);
+    }
+
+    // Folded chars index and index + 1 of a key packed into an int, with zeros past its end;
+    // keys that agree before index and differ in this pair compare like the pairs, unsigned
+    public int charPair(int row, int index) {
+        char[] keys = data;
+        int[] currentOffsets = offsets;
+        int start = currentOffsets[row] + index;
+        int end = currentOffsets[row + 1];
+        int first = start < end ? keys[start] : 0;
+        int second = start + 1 < end ? keys[start + 1] : 0;
+        return first << 16 | second;
+    }
+
+    public int length(int row) {
+        int[] currentOffsets = offsets;
+        return currentOffsets[row + 1] - currentOffsets[row];
+    }
+
+    // Drop the rows from newSize on, so the next add reuses their space
+    public void truncate(int newSize) {
+        size = Math.min(newSize, size);
+    }
+
+    public int size() {
+        return size;
+    }
+}
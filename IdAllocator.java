@@ -0,0 +1,47 @@
+import java.util.BitSet;
+
+// Hands out positive ids that never collide. Ids read from a file are claimed as they are;
+// an id already in use is replaced by a fresh one. Fresh ids always come after the highest id
+// seen so far, so an id is never handed out twice even if its row is later dropped. A file id
+// above MAX_CLAIMED_ID is replaced too: taken as is, one stray id near Integer.MAX_VALUE would
+// leave no fresh ids for the rest of the session and grow the used set to hundreds of MB.
+class IdAllocator {
+    static final int MAX_CLAIMED_ID = 1 << 27;
+
+    private final BitSet used = new BitSet();
+    private int highest;
+
+    // Keep the requested id if it is positive, in range and free, otherwise allocate a new one.
+    // Ids this allocator handed out are always in range, so a released one can be claimed back.
+    public synchronized int claim(int requested) {
+        if (requested > 0 && (requested <= MAX_CLAIMED_ID || requested <= highest) && !used.get(requested)) {
+            used.set(requested);
+            highest = Math.max(highest, requested);
+            return requested;
+        }
+        return next();
+    }
+
+    public synchronized int next() {
+        return reserve(1);
+    }
+
+    // Allocate count consecutive ids and return the first
+    public synchronized int reserve(int count) {
+        if ((long) highest + count > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Out of ids");
+        }
+        int first = highest + 1;
+        highest += count;
+        used.set(first, highest + 1);
+        return first;
+    }
+
+    // Free an id whose row is being read again, so the row can claim it back. Fresh ids still
+    // come after the highest id ever seen, so a released id is only reused by claim.
+    public synchronized void release(int id) {
+        if (id > 0) {
+            used.clear(id);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+import java.util.Arrays;
+
+// Growable list of ascending ints for posting lists. One writer at a time appends, under a
+// lock the caller holds; readers never lock. A reader must read size() before ids(): the array
+// is filled before the size that covers it is published, so it holds at least that many ids.
+class IntPostings {
+    private volatile int[] ids;
+    private volatile int size;
+
+    public IntPostings() {
+        this(4);
+    }
+
+    public IntPostings(int capacity) {
+        ids = new int[Math.max(1, capacity)];
+    }
+
+    void add(int id) {
+        int[] current = ids;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = id;
+        ids = current;
+        size = size + 1;
+    }
+
+    // Remove the last id if it is the given one, under the same lock as add
+    boolean removeLast(int id) {
+        if (size == 0 || ids[size - 1] != id) {
+            return false;
+        }
+        size = size - 1;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] ids() {
+        return ids;
+    }
+
+    // Number of ids below the limit, found by binary search since ids ascend
+    static int countBelow(int[] ids, int size, int limit) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids[mid] < limit) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
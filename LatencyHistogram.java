@@ -0,0 +1,74 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free log-linear latency histogram in the style of HdrHistogram: each power-of-two range
+// of nanoseconds is split into 16 linear sub-buckets, so any recorded value is reported within
+// about 6% while the whole range up to several minutes fits in under a thousand counters
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int RANGES = 64 - SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(RANGES * SUB_BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    public void record(long nanos) {
+        counts.incrementAndGet(index(Math.max(0, nanos)));
+        total.increment();
+        sum.add(nanos);
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    public double meanNanos() {
+        long n = total.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    // Upper bound of the bucket holding the given fraction of recorded values, e.g. 0.99
+    public long percentileNanos(double fraction) {
+        long n = total.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(fraction * n);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(1, target)) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(counts.length() - 1);
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        sum.reset();
+    }
+
+    // Values below 16 map one to one; above that, the top 4 bits after the leading one pick the sub-bucket
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int range = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (value >>> (range - 1)) & (SUB_BUCKETS - 1);
+        return range * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int index) {
+        int range = index / SUB_BUCKETS;
+        long subBucket = index % SUB_BUCKETS;
+        if (range == 0) {
+            return subBucket;
+        }
+        return ((SUB_BUCKETS + subBucket + 1) << (range - 1)) - 1;
+    }
+}
@@ -0,0 +1,261 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+// Memory-mapped CSV reader that scans delimiters over the raw bytes and only builds
+// a String when a field is asked for. Quoted fields may contain commas, newlines and
+// doubled quotes ("de Guise, Jr" or "say ""hi""").
+class MappedCsvReader implements Closeable {
+    // Files are mapped in windows of this size; a row must fit inside one window
+    static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final byte COMMA = ',';
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long start;
+    private final long end;
+    private final int windowSize;
+
+    // Called once per non-empty row; the row is only valid during the call
+    interface RowHandler {
+        void row(Row row);
+    }
+
+    public MappedCsvReader(String filename) throws IOException {
+        this(filename, 0, -1);
+    }
+
+    // Read only the rows that start in [start, end); start must be the first byte of a row
+    // and end < 0 means the end of the file
+    public MappedCsvReader(String filename, long start, long end) throws IOException {
+        this(filename, start, end, WINDOW_SIZE);
+    }
+
+    MappedCsvReader(String filename, long start, long end, int windowSize) throws IOException {
+        this.file = new RandomAccessFile(filename, "r");
+        this.channel = file.getChannel();
+        long size = channel.size();
+        this.start = Math.min(start, size);
+        this.end = end < 0 ? size : Math.min(end, size);
+        this.windowSize = windowSize;
+    }
+
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    // Split the file into at most the given number of byte ranges, each starting at a line
+    // boundary. Rows must not contain quoted newlines for the ranges to line up with rows.
+    static long[] splitPoints(String filename, int chunks) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(filename, "r")) {
+            long size = raf.length();
+            long[] points = new long[chunks + 1];
+            int count = 1;
+            for (int i = 1; i < chunks; i++) {
+                long position = Math.max(size * i / chunks, points[count - 1]);
+                raf.seek(position);
+                int b;
+                while ((b = raf.read()) >= 0 && b != LF) {
+                    position++;
+                }
+                position = Math.min(position + 1, size);
+                if (position > points[count - 1] && position < size) {
+                    points[count++] = position;
+                }
+            }
+            points[count++] = size;
+            return Arrays.copyOf(points, count);
+        }
+    }
+
+    // Scan every row in the range and hand it to the handler, returning the number of rows
+    public long forEach(RowHandler handler) throws IOException {
+        Row row = new Row();
+        long rows = 0;
+        long position = start;
+        long fileSize = channel.size();
+        while (position < end) {
+            long length = Math.min((long) windowSize, fileSize - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            boolean lastWindow = position + length >= fileSize;
+            int offset = 0;
+            while (offset < length && position + offset < end) {
+                row.position = position + offset;
+                int next = row.scan(buffer, offset, (int) length, lastWindow);
+                if (next < 0) {
+                    break;
+                }
+                if (!row.isEmpty()) {
+                    handler.row(row);
+                    rows++;
+                }
+                offset = next;
+            }
+            if (offset == 0 && !lastWindow) {
+                throw new IOException("Row at byte " + position + " is longer than " + windowSize + " bytes");
+            }
+            position += offset;
+            if (lastWindow) {
+                break;
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    // Field boundaries of the current row, decoded lazily from the mapped bytes
+    static class Row {
+        private MappedByteBuffer buffer;
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private boolean[] quoted = new boolean[8];
+        private int count;
+        private byte[] scratch = new byte[256];
+        private long position;
+
+        // Find the fields of the row starting at offset and return the offset of the next row,
+        // or -1 if the row runs past the window and more of the file remains
+        int scan(MappedByteBuffer buffer, int offset, int limit, boolean lastWindow) {
+            this.buffer = buffer;
+            count = 0;
+            int fieldStart = offset;
+            boolean inQuotes = false;
+            boolean fieldQuoted = false;
+            int i = offset;
+            while (i < limit) {
+                byte b = buffer.get(i);
+                if (inQuotes) {
+                    if (b == QUOTE) {
+                        if (i + 1 < limit && buffer.get(i + 1) == QUOTE) {
+                            i++;
+                        } else if (i + 1 >= limit && !lastWindow) {
+                            return -1;
+                        } else {
+                            inQuotes = false;
+                        }
+                    }
+                } else if (b == QUOTE && i == fieldStart) {
+                    inQuotes = true;
+                    fieldQuoted = true;
+                } else if (b == COMMA) {
+                    addField(fieldStart, i, fieldQuoted);
+                    fieldStart = i + 1;
+                    fieldQuoted = false;
+                } else if (b == LF) {
+                    int fieldEnd = i > fieldStart && buffer.get(i - 1) == CR ? i - 1 : i;
+                    addField(fieldStart, fieldEnd, fieldQuoted);
+                    return i + 1;
+                }
+                i++;
+            }
+            if (!lastWindow) {
+                return -1;
+            }
+            int fieldEnd = limit > fieldStart && buffer.get(limit - 1) == CR ? limit - 1 : limit;
+            addField(fieldStart, fieldEnd, fieldQuoted);
+            return limit;
+        }
+
+        private void addField(int from, int to, boolean isQuoted) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+                quoted = Arrays.copyOf(quoted, count * 2);
+            }
+            starts[count] = from;
+            ends[count] = to;
+            quoted[count] = isQuoted;
+            count++;
+        }
+
+        // Byte offset of the row's first byte in the file
+        public long position() {
+            return position;
+        }
+
+        boolean isEmpty() {
+            return count == 1 && starts[0] == ends[0];
+        }
+
+        public int fieldCount() {
+            return count;
+        }
+
+        // Decode one field as UTF-8, removing surrounding quotes and doubled quotes
+        public String field(int index) {
+            Objects.checkIndex(index, count);
+            int from = starts[index];
+            int to = ends[index];
+            if (quoted[index]) {
+                from++;
+                int closing = to - 1;
+                while (closing >= from && buffer.get(closing) != QUOTE) {
+                    closing--;
+                }
+                to = Math.max(from, closing);
+            }
+            int length = to - from;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                byte b = buffer.get(i);
+                scratch[n++] = b;
+                if (b == QUOTE && quoted[index] && i + 1 < to && buffer.get(i + 1) == QUOTE) {
+                    i++;
+                }
+            }
+            return new String(scratch, 0, n, StandardCharsets.UTF_8);
+        }
+
+        // Parse a decimal integer field straight from the bytes
+        public int intField(int index) {
+            Objects.checkIndex(index, count);
+            int from = starts[index];
+            int to = ends[index];
+            while (from < to && buffer.get(from) == ' ') {
+                from++;
+            }
+            while (to > from && buffer.get(to - 1) == ' ') {
+                to--;
+            }
+            boolean negative = from < to && buffer.get(from) == '-';
+            if (negative) {
+                from++;
+            }
+            if (from == to) {
+                throw new NumberFormatException("Empty number in field " + index);
+            }
+            long value = 0;
+            for (int i = from; i < to; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException("For input string: \"" + field(index) + "\"");
+                }
+                value = value * 10 + digit;
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    throw new NumberFormatException("Out of range: \"" + field(index) + "\"");
+                }
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Out of range: \"" + field(index) + "\"");
+            }
+            return (int) value;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+enum MenuOption {
+    ADD_PLAYER("Add Player"),
+    GENERATE_RANDOM_PLAYER("Generate Random Player"),
+    READ_SORT_DISPLAY("Read, Sort, and Display Records"),
+    SEARCH_BY_NAME("Search for People by Name"),
+    SAVE_SNAPSHOT("Save Snapshot"),
+    SHOW_METRICS("Show Metrics"),
+    SORT_FILE_TO_DISK("Sort File to Disk"),
+    QUERY_PLAYERS("Count Players by Position, Coach Type and Team"),
+    EXIT("Exit");
+
+    private final String description;
+
+    MenuOption(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    public static MenuOption fromInt(int optionNumber) {
+        return MenuOption.values()[optionNumber - 1];
+    }
+}
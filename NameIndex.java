@@ -0,0 +1,137 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// Case-folded inverted index over names, answering exact, prefix, token and fuzzy lookups.
+// Lookups never lock and may run while items are being added; postings keep insertion order.
+class NameIndex<T> {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[\\s\\-]+");
+
+    private final ConcurrentNavigableMap<String, AppendOnlyList<T>> names;
+    private final ConcurrentMap<String, AppendOnlyList<T>> tokens;
+    // Every distinct name, for lookups that tolerate typos
+    private volatile TrigramIndex similar;
+
+    public NameIndex() {
+        names = new ConcurrentSkipListMap<>();
+        tokens = new ConcurrentHashMap<>();
+        similar = new TrigramIndex();
+    }
+
+    // Fold a name the same way for indexing and for lookups
+    static String fold(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Index an item under a name and under each word of that name
+    public void add(String name, T item) {
+        String key = fold(name);
+        if (key.isEmpty()) {
+            return;
+        }
+        AppendOnlyList<T> postings = names.get(key);
+        if (postings == null) {
+            AppendOnlyList<T> created = new AppendOnlyList<>();
+            postings = names.putIfAbsent(key, created);
+            if (postings == null) {
+                postings = created;
+                similar.add(key);
+            }
+        }
+        append(postings, item);
+        for (String token : TOKEN_SEPARATOR.split(key)) {
+            if (!token.isEmpty()) {
+                append(tokens.computeIfAbsent(token, k -> new AppendOnlyList<>()), item);
+            }
+        }
+    }
+
+    // Undo the latest add of an item under a name. Items must be removed newest first, and
+    // lookups must not run at the same time. Emptied names stay known to fuzzy lookups, which
+    // then find nothing under them.
+    public void remove(String name, T item) {
+        String key = fold(name);
+        if (key.isEmpty()) {
+            return;
+        }
+        removeLast(names.get(key), item);
+        for (String token : TOKEN_SEPARATOR.split(key)) {
+            if (!token.isEmpty()) {
+                removeLast(tokens.get(token), item);
+            }
+        }
+    }
+
+    private void removeLast(AppendOnlyList<T> postings, T item) {
+        if (postings == null) {
+            return;
+        }
+        synchronized (postings) {
+            if (item.equals(postings.last())) {
+                postings.truncate(postings.size() - 1);
+            }
+        }
+    }
+
+    // The same item may be indexed under several names; keep one entry per key
+    private void append(AppendOnlyList<T> postings, T item) {
+        synchronized (postings) {
+            if (postings.last() != item) {
+                postings.add(item);
+            }
+        }
+    }
+
+    // Items whose name matches exactly, ignoring case
+    public List<T> exact(String name) {
+        List<T> result = names.get(fold(name));
+        return result == null ? Collections.emptyList() : Collections.unmodifiableList(result);
+    }
+
+    // Items with any indexed name starting with the given prefix, in name order
+    public List<T> prefix(String prefix) {
+        String key = fold(prefix);
+        Set<T> result = new LinkedHashSet<>();
+        for (List<T> postings : names.subMap(key, true, key + Character.MAX_VALUE, false).values()) {
+            result.addAll(postings);
+        }
+        return new ArrayList<>(result);
+    }
+
+    // Items whose name contains the given word
+    public List<T> token(String word) {
+        List<T> result = tokens.get(fold(word));
+        return result == null ? Collections.emptyList() : Collections.unmodifiableList(result);
+    }
+
+    // Edits tolerated by default: one in short names, where two would match almost anything
+    static int typoBound(String name) {
+        return fold(name).length() <= 4 ? 1 : 2;
+    }
+
+    // Items whose name is within maxDistance edits of the given name, closest names first
+    public List<T> fuzzy(String name, int maxDistance) {
+        Set<T> result = new LinkedHashSet<>();
+        for (TrigramIndex.Match match : similar.search(fold(name), maxDistance)) {
+            List<T> postings = names.get(match.term);
+            if (postings != null) {
+                result.addAll(postings);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    public void clear() {
+        names.clear();
+        tokens.clear();
+        similar = new TrigramIndex();
+    }
+}
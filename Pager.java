@@ -0,0 +1,124 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Scanner;
+
+// Cursor over a sorted or filtered view, shown one page at a time. The view is either a list,
+// read by index, or an iterator, read only as far as the pages shown so far, so rendering costs
+// the page shown rather than the whole view. Pages are written through one buffered writer.
+class Pager<T> {
+    // Append one item to the page; index is the item's position in the whole view
+    interface Renderer<T> {
+        void render(int index, T item, StringBuilder out);
+    }
+
+    private final List<T> items;
+    private final Iterator<? extends T> more;
+    private final int pageSize;
+    private int offset;
+
+    public Pager(List<T> items, int pageSize) {
+        this(items, Collections.emptyIterator(), pageSize);
+    }
+
+    // Items are pulled from the iterator as later pages are reached and kept for going back
+    public Pager(Iterator<? extends T> items, int pageSize) {
+        this(new ArrayList<>(), items, pageSize);
+    }
+
+    private Pager(List<T> items, Iterator<? extends T> more, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.items = items;
+        this.more = more;
+        this.pageSize = pageSize;
+    }
+
+    // Make at least count items available if the view holds that many
+    private boolean fill(int count) {
+        while (items.size() < count && more.hasNext()) {
+            items.add(more.next());
+        }
+        return items.size() >= count;
+    }
+
+    public boolean hasNext() {
+        return fill(offset + pageSize + 1);
+    }
+
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+
+    public void next() {
+        if (hasNext()) {
+            offset += pageSize;
+        }
+    }
+
+    public void previous() {
+        offset = Math.max(0, offset - pageSize);
+    }
+
+    // Zero-based position of the cursor in the view
+    public int offset() {
+        return offset;
+    }
+
+    public List<T> page() {
+        fill(offset + pageSize);
+        return items.subList(Math.min(offset, items.size()), Math.min(offset + pageSize, items.size()));
+    }
+
+    // Append the current page, one item per line
+    public void render(StringBuilder out, Renderer<? super T> renderer) {
+        List<T> page = page();
+        for (int i = 0; i < page.size(); i++) {
+            renderer.render(offset + i, page.get(i), out);
+            out.append(System.lineSeparator());
+        }
+    }
+
+    // Show a page, then move through the view until the user leaves it
+    public void browse(Scanner scanner, Renderer<? super T> renderer) {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        StringBuilder text = new StringBuilder(pageSize * 96);
+        while (true) {
+            text.setLength(0);
+            render(text, renderer);
+            boolean hasNext = hasNext();
+            if (!hasNext && !hasPrevious()) {
+                write(out, text);
+                return;
+            }
+            text.append("Showing ").append(offset + 1).append('-').append(offset + page().size());
+            text.append(". ").append(hasNext ? "n = next, " : "").append(hasPrevious() ? "p = previous, " : "");
+            text.append("anything else = back: ");
+            write(out, text);
+            String command = scanner.hasNextLine() ? scanner.nextLine().trim() : "";
+            if (command.equalsIgnoreCase("n") && hasNext) {
+                next();
+            } else if (command.equalsIgnoreCase("p") && hasPrevious()) {
+                previous();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void write(Writer out, CharSequence text) {
+        try {
+            out.append(text);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+// Lightweight view of one row of a PlayerTable
+class Player {
+    private final PlayerTable table;
+    private final int row;
+
+    public Player(String name, String position, Coach coach, Team team) {
+        this(new PlayerTable(1), 0);
+        table.append(name, position, coach, team);
+    }
+
+    Player(PlayerTable table, int row) {
+        this.table = table;
+        this.row = row;
+    }
+
+    public String getName() {
+        return table.getName(row);
+    }
+
+    public String getPosition() {
+        return table.getPosition(row);
+    }
+
+    public Coach getCoach() {
+        return table.getCoach(row);
+    }
+
+    public Team getTeam() {
+        return table.getTeam(row);
+    }
+
+    int getRow() {
+        return row;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Player)) {
+            return false;
+        }
+        Player other = (Player) o;
+        return table == other.table && row == other.row;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(table) * 31 + row;
+    }
+
+    @Override
+    public String toString() {
+        return getName() + " (" + getPosition() + "), Coach: " + getCoach().getName() + ", Team: " + getTeam().getName();
+    }
+}
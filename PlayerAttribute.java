@@ -0,0 +1,17 @@
+// Player attributes with a secondary index
+enum PlayerAttribute {
+    POSITION("Position"),
+    COACH_TYPE("Coach Type"),
+    TEAM("Team");
+
+    private final String description;
+
+    PlayerAttribute(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,174 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Append-only journal of players added since the base roster file was written. Records are
+// buffered and written in groups with one fsync per group; each carries a CRC so a torn tail
+// left by a crash is detected and dropped on replay. The header holds a fingerprint of the
+// base file, so a journal that was already compacted into its base is never replayed twice.
+// Writing methods are synchronized, so several writers may share one journal.
+class PlayerJournal implements Closeable {
+    static final int MAGIC = 0x52434a4c; // "RCJL"
+    static final int HEADER_SIZE = 12;
+    // Buffered records are written and synced once this many have accumulated
+    static final int BATCH_SIZE = 256;
+    // Bytes at each end of the base file covered by its fingerprint
+    static final int FINGERPRINT_BLOCK = 4096;
+
+    private final FileChannel channel;
+    private final ByteArrayOutputStream pending;
+    private final DataOutputStream pendingOut;
+    private int pendingRecords;
+    // Records in the journal, flushed or not; read without the lock
+    private volatile int records;
+
+    interface Replay {
+        void player(String name, String position, String coachName, String coachType, String teamName);
+    }
+
+    // Open or create the journal; a journal written against a different base is discarded
+    public PlayerJournal(String filename, long baseFingerprint) throws IOException {
+        channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        pending = new ByteArrayOutputStream(1 << 12);
+        pendingOut = new DataOutputStream(pending);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getLong() != baseFingerprint) {
+            reset(baseFingerprint);
+        }
+    }
+
+    // Identify a base file by its size, modification time and a CRC of its first and last
+    // blocks, so an edit that keeps the length within the timestamp's granularity still
+    // shows up unless it touches only the middle of a file larger than two blocks
+    static long fingerprint(String filename) throws IOException {
+        File file = new File(filename);
+        long length = file.length();
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer block = ByteBuffer.allocate(FINGERPRINT_BLOCK);
+            readFully(channel, block, 0);
+            crc.update(block.flip());
+            if (length > FINGERPRINT_BLOCK) {
+                block.clear();
+                readFully(channel, block, Math.max(FINGERPRINT_BLOCK, length - FINGERPRINT_BLOCK));
+                crc.update(block.flip());
+            }
+        }
+        return (length * 31 + file.lastModified()) * 31 + crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+    }
+
+    // Apply every intact record, then cut off anything after the last one
+    public synchronized int replay(Replay replay) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        buffer.position(HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        int applied = 0;
+        while (buffer.remaining() >= 8) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                buffer.position(start);
+                break;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            replay.player(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+            applied++;
+        }
+        channel.truncate(buffer.position());
+        channel.position(buffer.position());
+        records = applied;
+        return applied;
+    }
+
+    // Buffer one player; the group is written and synced once it is full
+    public synchronized void append(Player player) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeUTF(player.getName());
+        payload.writeUTF(player.getPosition());
+        payload.writeUTF(player.getCoach().getName());
+        payload.writeUTF(player.getCoach().getType());
+        payload.writeUTF(player.getTeam().getName());
+        byte[] bytes = payloadBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        pendingOut.writeInt(bytes.length);
+        pendingOut.writeInt((int) crc.getValue());
+        pendingOut.write(bytes);
+        pendingRecords++;
+        records++;
+        if (pendingRecords >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    // Write all buffered records and force them to disk with a single sync
+    public synchronized void flush() throws IOException {
+        if (pendingRecords == 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        pendingRecords = 0;
+        pending.reset();
+    }
+
+    // Records in the journal, including ones not yet flushed
+    public int size() {
+        return records;
+    }
+
+    // Empty the journal after its records have been folded into a new base file
+    public synchronized void reset(long baseFingerprint) throws IOException {
+        pending.reset();
+        pendingRecords = 0;
+        records = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putLong(baseFingerprint).flip();
+        channel.truncate(0);
+        channel.write(header, 0);
+        channel.position(HEADER_SIZE);
+        channel.force(true);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import java.util.AbstractList;
+import java.util.Objects;
+
+// Columnar store of players: names packed in one byte array and position, coach and
+// team dictionary-encoded, so a player costs a few ints plus its name bytes. Appends are
+// serialized; readers never lock and see every row below the size they read.
+class PlayerTable extends AbstractList<Player> {
+    private final StringColumn names;
+    private final DictionaryColumn<String> positions;
+    private final DictionaryColumn<Coach> coaches;
+    private final DictionaryColumn<Team> teams;
+    private volatile int size;
+
+    public PlayerTable() {
+        this(16);
+    }
+
+    public PlayerTable(int capacity) {
+        names = new StringColumn(capacity);
+        positions = new DictionaryColumn<>(capacity);
+        coaches = new DictionaryColumn<>(capacity);
+        teams = new DictionaryColumn<>(capacity);
+    }
+
+    // Store a new row and return a view of it
+    public synchronized Player append(String name, String position, Coach coach, Team team) {
+        int row = names.add(name);
+        positions.add(position);
+        coaches.add(coach);
+        teams.add(team);
+        size = row + 1;
+        return new Player(this, row);
+    }
+
+    @Override
+    public boolean add(Player player) {
+        append(player.getName(), player.getPosition(), player.getCoach(), player.getTeam());
+        return true;
+    }
+
+    @Override
+    public Player get(int index) {
+        Objects.checkIndex(index, size);
+        return new Player(this, index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    String getName(int row) {
+        return names.get(row);
+    }
+
+    String getPosition(int row) {
+        return positions.get(row);
+    }
+
+    Coach getCoach(int row) {
+        return coaches.get(row);
+    }
+
+    Team getTeam(int row) {
+        return teams.get(row);
+    }
+}
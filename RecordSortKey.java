@@ -0,0 +1,18 @@
+// Columns a Club_Form record can be ordered by
+enum RecordSortKey {
+    FULL_NAME("Full Name"),
+    LAST_NAME("Last Name"),
+    ID("ID"),
+    EMAIL("Email");
+
+    private final String description;
+
+    RecordSortKey(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
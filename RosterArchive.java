@@ -0,0 +1,507 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Compact binary export of Club_Form people. Rows are stored in blocks of up to BLOCK_ROWS,
+// each compressed on its own with Deflate, followed by a footer holding the block index and
+// the dictionaries, so any one block can be read and decoded without touching the others:
+//
+//   "RCA1" | block... | footer | footer offset (8 bytes) | "RCA1"
+//   footer: blocks, then per block its compressed size, raw size and rows;
+//           the gender dictionary; the email domain dictionary
+//
+// Inside a block each column is stored whole, one after another, after the sizes of all but
+// the last. Ids are the varint difference from the id before, so consecutive ids take a byte.
+// Genders and email domains are codes into the file's dictionaries. First and last names are
+// codes into a dictionary local to the block, a name being spelled out the first time the
+// block uses it, so common names cost a byte and decoding reuses one String for each of them.
+// Numbers are varints as in ExternalSorter, strings a varint length and UTF-8 bytes.
+// Only Club_Form people are archived; player rosters have RosterSnapshot, which already
+// stores each coach type and team name once and refers to it from every player.
+class RosterArchive {
+    static final int BLOCK_ROWS = 1 << 14;
+
+    private static final byte[] MAGIC = {'R', 'C', 'A', '1'};
+    private static final int TRAILER_SIZE = 8 + MAGIC.length;
+    // Columns of a block, in the order they are stored
+    private static final int IDS = 0;
+    private static final int FIRST_NAMES = 1;
+    private static final int LAST_NAMES = 2;
+    private static final int EMAIL_LOCALS = 3;
+    private static final int EMAIL_DOMAINS = 4;
+    private static final int GENDERS = 5;
+    private static final int COLUMNS = 6;
+
+    private RosterArchive() {
+    }
+
+    // True if the file starts like an archive rather than a CSV file
+    static boolean isArchive(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            ByteBuffer start = ByteBuffer.allocate(MAGIC.length);
+            while (start.hasRemaining() && channel.read(start) >= 0) {
+                // Keep reading until the magic number is in or the file ends
+            }
+            return !start.hasRemaining() && Arrays.equals(start.array(), MAGIC);
+        }
+    }
+
+    // Convert a Club_Form file to an archive and return the number of people written; rows
+    // without exactly five fields are skipped, as readFile skips them
+    static int convert(String csv, String archive) throws IOException {
+        try (MappedCsvReader reader = new MappedCsvReader(csv);
+             Writer out = new Writer(archive)) {
+            boolean[] header = {true};
+            reader.forEach(row -> {
+                if (header[0]) {
+                    header[0] = false;
+                    return;
+                }
+                if (row.fieldCount() != 5) {
+                    return;
+                }
+                out.person(row.intField(0), row.field(1), row.field(2), row.field(3), row.field(4));
+            });
+            return out.rows();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Writes people in the order given; close writes the last block and the footer
+    static final class Writer implements Closeable, RosterGenerator.PersonSink {
+        private final OutputStream out;
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private final Bytes[] columns = new Bytes[COLUMNS];
+        private final Bytes index = new Bytes();
+        private final Dictionary genders = new Dictionary();
+        private final Dictionary domains = new Dictionary();
+        private final Dictionary firstNames = new Dictionary();
+        private final Dictionary lastNames = new Dictionary();
+        private byte[] compressed = new byte[1 << 16];
+        private long position;
+        private int blocks;
+        private int blockRows;
+        private int rows;
+        private long previousId;
+        private boolean closed;
+
+        public Writer(String filename) throws IOException {
+            out = new BufferedOutputStream(Files.newOutputStream(Paths.get(filename)), 1 << 16);
+            for (int c = 0; c < COLUMNS; c++) {
+                columns[c] = new Bytes();
+            }
+            out.write(MAGIC);
+            position = MAGIC.length;
+        }
+
+        @Override
+        public void person(int id, String firstName, String lastName, String email, String gender) {
+            long delta = id - previousId - 1;
+            columns[IDS].writeVarLong(delta << 1 ^ delta >> 63);
+            previousId = id;
+            writeName(columns[FIRST_NAMES], firstNames, firstName);
+            writeName(columns[LAST_NAMES], lastNames, lastName);
+            // Domain code 0 is an address without an @, stored whole as its local part
+            int at = email.lastIndexOf('@');
+            columns[EMAIL_LOCALS].writeString(at < 0 ? email : email.substring(0, at));
+            columns[EMAIL_DOMAINS].writeVarLong(at < 0 ? 0 : domains.code(email.substring(at + 1)) + 1);
+            columns[GENDERS].writeVarLong(genders.code(gender));
+            rows++;
+            if (++blockRows == BLOCK_ROWS) {
+                try {
+                    writeBlock();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        // Bytes written so far, the whole file once closed
+        public long size() {
+            return position;
+        }
+
+        // A block-local name: its code plus one if the block used it before, otherwise 0 and the name
+        private static void writeName(Bytes column, Dictionary names, String name) {
+            int size = names.size();
+            int code = names.code(name);
+            column.writeVarLong(code == size ? 0 : code + 1);
+            if (code == size) {
+                column.writeString(name);
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (blockRows == 0) {
+                return;
+            }
+            Bytes raw = new Bytes();
+            for (int c = 0; c < COLUMNS - 1; c++) {
+                raw.writeVarLong(columns[c].size);
+            }
+            for (Bytes column : columns) {
+                raw.write(column.data, column.size);
+                column.size = 0;
+            }
+            deflater.reset();
+            deflater.setInput(raw.data, 0, raw.size);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, length * 2);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            out.write(compressed, 0, length);
+            position += length;
+            index.writeVarLong(length);
+            index.writeVarLong(raw.size);
+            index.writeVarLong(blockRows);
+            blocks++;
+            blockRows = 0;
+            previousId = 0;
+            firstNames.clear();
+            lastNames.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                writeBlock();
+                Bytes footer = new Bytes();
+                footer.writeVarLong(blocks);
+                footer.write(index.data, index.size);
+                genders.writeTo(footer);
+                domains.writeTo(footer);
+                out.write(footer.data, 0, footer.size);
+                ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE).putLong(position).put(MAGIC);
+                out.write(trailer.array());
+                position += footer.size + TRAILER_SIZE;
+            } finally {
+                deflater.end();
+                out.close();
+            }
+        }
+    }
+
+    // Reads the index and dictionaries when opened, then any block on request
+    static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final Inflater inflater = new Inflater();
+        private final long[] offsets;
+        private final int[] compressedSizes;
+        private final int[] rawSizes;
+        private final int[] rows;
+        private final String[] genders;
+        private final String[] domains;
+        private ByteBuffer compressed = ByteBuffer.allocate(0);
+        private byte[] raw = new byte[0];
+
+        public Reader(String filename) throws IOException {
+            channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                ByteBuffer trailer = read(size - TRAILER_SIZE, TRAILER_SIZE);
+                long footerOffset = trailer.getLong();
+                byte[] magic = new byte[MAGIC.length];
+                trailer.get(magic);
+                if (size < MAGIC.length + TRAILER_SIZE || !Arrays.equals(magic, MAGIC)
+                        || footerOffset < MAGIC.length || footerOffset > size - TRAILER_SIZE) {
+                    throw new IOException(filename + " is not a roster archive");
+                }
+                ByteBuffer footerBytes = read(footerOffset, (int) (size - TRAILER_SIZE - footerOffset));
+                Cursor footer = new Cursor(footerBytes.array(), 0);
+                int blocks = footer.readInt();
+                offsets = new long[blocks];
+                compressedSizes = new int[blocks];
+                rawSizes = new int[blocks];
+                rows = new int[blocks];
+                long offset = MAGIC.length;
+                for (int b = 0; b < blocks; b++) {
+                    offsets[b] = offset;
+                    compressedSizes[b] = footer.readInt();
+                    rawSizes[b] = footer.readInt();
+                    rows[b] = footer.readInt();
+                    offset += compressedSizes[b];
+                }
+                genders = footer.readDictionary();
+                domains = footer.readDictionary();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e instanceof IOException ? (IOException) e : new IOException("Corrupt roster archive " + filename, e);
+            }
+        }
+
+        public int blocks() {
+            return rows.length;
+        }
+
+        public int rows(int block) {
+            return rows[block];
+        }
+
+        public long rows() {
+            long total = 0;
+            for (int r : rows) {
+                total += r;
+            }
+            return total;
+        }
+
+        // Hand every person to the sink in the order they were written
+        public void forEach(RosterGenerator.PersonSink sink) throws IOException {
+            for (int b = 0; b < rows.length; b++) {
+                readBlock(b, sink);
+            }
+        }
+
+        // Decode one block, reading nothing but its own bytes
+        public void readBlock(int block, RosterGenerator.PersonSink sink) throws IOException {
+            byte[] data = inflate(block);
+            Cursor sizes = new Cursor(data, 0);
+            int[] lengths = new int[COLUMNS - 1];
+            for (int c = 0; c < COLUMNS - 1; c++) {
+                lengths[c] = sizes.readInt();
+            }
+            Cursor[] columns = new Cursor[COLUMNS];
+            int start = sizes.position;
+            for (int c = 0; c < COLUMNS; c++) {
+                columns[c] = new Cursor(data, start);
+                start += c < COLUMNS - 1 ? lengths[c] : 0;
+            }
+            List<String> firstNames = new ArrayList<>();
+            List<String> lastNames = new ArrayList<>();
+            long id = 0;
+            try {
+                for (int r = 0; r < rows[block]; r++) {
+                    long zigzag = columns[IDS].readVarLong();
+                    id += (zigzag >>> 1 ^ -(zigzag & 1)) + 1;
+                    String firstName = columns[FIRST_NAMES].readName(firstNames);
+                    String lastName = columns[LAST_NAMES].readName(lastNames);
+                    String local = columns[EMAIL_LOCALS].readString();
+                    int domain = columns[EMAIL_DOMAINS].readInt();
+                    String email = domain == 0 ? local : local + "@" + domains[domain - 1];
+                    sink.person((int) id, firstName, lastName, email, genders[columns[GENDERS].readInt()]);
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt block " + block + " in roster archive", e);
+            }
+        }
+
+        private byte[] inflate(int block) throws IOException {
+            if (compressed.capacity() < compressedSizes[block]) {
+                compressed = ByteBuffer.allocate(compressedSizes[block]);
+            }
+            compressed.clear().limit(compressedSizes[block]);
+            readFully(compressed, offsets[block]);
+            if (raw.length < rawSizes[block]) {
+                raw = new byte[rawSizes[block]];
+            }
+            inflater.reset();
+            inflater.setInput(compressed.array(), 0, compressedSizes[block]);
+            try {
+                int length = 0;
+                while (length < rawSizes[block] && !inflater.finished()) {
+                    int n = inflater.inflate(raw, length, rawSizes[block] - length);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length += n;
+                }
+                if (length != rawSizes[block]) {
+                    throw new IOException("Truncated block " + block + " in roster archive");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt block " + block + " in roster archive", e);
+            }
+            return raw;
+        }
+
+        private ByteBuffer read(long position, int length) throws IOException {
+            if (position < 0 || length < 0) {
+                throw new IOException("Not a roster archive");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            readFully(buffer, position);
+            buffer.flip();
+            return buffer;
+        }
+
+        private void readFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of roster archive");
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            channel.close();
+        }
+    }
+
+    // Distinct values in first-use order
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        void clear() {
+            codes.clear();
+            values.clear();
+        }
+
+        void writeTo(Bytes out) {
+            out.writeVarLong(values.size());
+            for (String value : values) {
+                out.writeString(value);
+            }
+        }
+    }
+
+    // Growable byte array written to the end
+    private static final class Bytes {
+        byte[] data = new byte[1 << 10];
+        int size;
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        void writeString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            write(bytes, bytes.length);
+        }
+
+        void write(byte[] bytes, int length) {
+            ensure(length);
+            System.arraycopy(bytes, 0, data, size, length);
+            size += length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+    }
+
+    // Reads varints and strings from a byte array; running off the end throws
+    private static final class Cursor {
+        private final byte[] data;
+        int position;
+
+        Cursor(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Malformed number in roster archive");
+        }
+
+        int readInt() {
+            long value = readVarLong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Number out of range in roster archive");
+            }
+            return (int) value;
+        }
+
+        String readString() {
+            int length = readInt();
+            String s = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return s;
+        }
+
+        // A block-local name: spelled out on first use, then a code into the names seen so far
+        String readName(List<String> names) {
+            int code = readInt();
+            if (code > 0) {
+                return names.get(code - 1);
+            }
+            String name = readString();
+            names.add(name);
+            return name;
+        }
+
+        String[] readDictionary() {
+            String[] values = new String[readInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readString();
+            }
+            return values;
+        }
+    }
+
+    // Usage: java RosterArchive <Club_Form file> <archive>
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java RosterArchive <Club_Form file> <archive>");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        int rows = convert(args[0], args[1]);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long csvSize = Files.size(Paths.get(args[0]));
+        long archiveSize = Files.size(Paths.get(args[1]));
+        System.out.printf("Wrote %d people to %s in %d ms: %d bytes, %.1f%% of the %d byte CSV.%n",
+                rows, args[1], millis, archiveSize, 100.0 * archiveSize / Math.max(1, csvSize), csvSize);
+    }
+}
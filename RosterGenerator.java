@@ -0,0 +1,219 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Synthetic player and person generator for load testing. Rows are produced in fixed-size
+// blocks, each with its own SplittableRandom derived from the seed and the block number, so
+// the output for a given seed and count is the same however many threads generate it.
+class RosterGenerator {
+    static final String[] FIRST_NAMES = {
+        "John", "David", "Michael", "Chris", "Daniel", "Paul", "Sarah", "Jessica", "Emily", "Samantha",
+        "James", "Robert", "Thomas", "Liam", "Noah", "Oliver", "Jack", "Harry", "Conor", "Sean",
+        "Emma", "Olivia", "Sophie", "Grace", "Chloe", "Aoife", "Ciara", "Niamh", "Hannah", "Lucy"
+    };
+    static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Davis", "Miller", "Wilson", "Moore", "Taylor",
+        "Murphy", "Kelly", "Byrne", "Ryan", "O'Brien", "Walsh", "O'Sullivan", "McCarthy", "Doyle", "Kennedy",
+        "Evans", "Thomas", "Roberts", "Hughes", "Lewis", "Walker", "Clarke", "Wright", "Hall", "Green"
+    };
+    static final String[] POSITIONS = {"Forward", "Back"};
+    static final String[] COACH_TYPES = {"Head Coach", "Assistant Coach", "Scrum Coach"};
+    static final String[] TEAM_NAMES = {"A Squad", "B Squad", "Under-13 Squad"};
+    static final String[] GENDERS = {"Male", "Female", "Non-binary"};
+    static final String[] EMAIL_DOMAINS = {"example.com", "gmail.com", "outlook.com", "yahoo.com", "club.ie"};
+
+    // A fifteen-a-side team fields eight forwards and seven backs
+    private static final int[] POSITION_WEIGHTS = {8, 7};
+    private static final int[] COACH_TYPE_WEIGHTS = {2, 5, 3};
+    private static final int[] TEAM_WEIGHTS = {3, 3, 4};
+    private static final int[] GENDER_WEIGHTS = {48, 48, 4};
+
+    static final int BLOCK_SIZE = 1 << 16;
+
+    private final long seed;
+    private final boolean parallel;
+
+    interface PlayerSink {
+        void player(String name, String position, String coachType, String teamName);
+    }
+
+    interface PersonSink {
+        void person(int id, String firstName, String lastName, String email, String gender);
+    }
+
+    public RosterGenerator(long seed, boolean parallel) {
+        this.seed = seed;
+        this.parallel = parallel;
+    }
+
+    // Pick a random player for interactive use
+    static void randomPlayer(PlayerSink sink) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        sink.player(firstName + " " + lastName,
+                POSITIONS[random.nextInt(POSITIONS.length)],
+                COACH_TYPES[random.nextInt(COACH_TYPES.length)],
+                TEAM_NAMES[random.nextInt(TEAM_NAMES.length)]);
+    }
+
+    // Generate count players in a reproducible order, handing them to the sink on this thread
+    public void players(int count, PlayerSink sink) {
+        forEachRow(count, block -> playerBlock(block, count), row -> sink.player(row[0], row[1], row[2], row[3]));
+    }
+
+    // Generate count people with ids firstId, firstId + 1, ... handing them to the sink on this thread
+    public void people(int count, int firstId, PersonSink sink) {
+        forEachRow(count, block -> personBlock(block, count, firstId),
+                row -> sink.person(Integer.parseInt(row[0]), row[1], row[2], row[3], row[4]));
+    }
+
+    // Build a window of blocks at a time, in parallel if asked, then hand their rows to the
+    // sink in order on the calling thread, so a sink may take locks its caller already holds
+    private void forEachRow(int count, IntFunction<String[][]> block, Consumer<String[]> sink) {
+        int blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int window = parallel ? 2 * ForkJoinPool.getCommonPoolParallelism() : 1;
+        for (int first = 0; first < blocks; first += window) {
+            IntStream range = IntStream.range(first, Math.min(blocks, first + window));
+            String[][][] built = (parallel ? range.parallel() : range).mapToObj(block).toArray(String[][][]::new);
+            for (String[][] rows : built) {
+                for (String[] row : rows) {
+                    sink.accept(row);
+                }
+            }
+        }
+    }
+
+    // Write count players as PlayerName,Position,CoachName,CoachType,TeamName lines
+    public void writePlayers(String filename, int count) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8)) {
+            write(out, blocks(count).mapToObj(block -> {
+                StringBuilder text = new StringBuilder(BLOCK_SIZE * 48);
+                for (String[] row : playerBlock(block, count)) {
+                    text.append(row[0]).append(',').append(row[1]).append(",Coach,")
+                            .append(row[2]).append(',').append(row[3]).append('\n');
+                }
+                return text;
+            }));
+        }
+    }
+
+    // Write count people in the Club_Form format, header line included
+    public void writePeople(String filename, int count) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8)) {
+            out.write("id,first_name,last_name,email,gender\n");
+            write(out, blocks(count).mapToObj(block -> {
+                StringBuilder text = new StringBuilder(BLOCK_SIZE * 56);
+                for (String[] row : personBlock(block, count, 1)) {
+                    text.append(String.join(",", row)).append('\n');
+                }
+                return text;
+            }));
+        }
+    }
+
+    private void write(BufferedWriter out, Stream<StringBuilder> blocks) throws IOException {
+        IOException[] failure = new IOException[1];
+        blocks.forEachOrdered(text -> {
+            if (failure[0] == null) {
+                try {
+                    out.append(text);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    private IntStream blocks(int count) {
+        IntStream blocks = IntStream.range(0, (count + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        return parallel ? blocks.parallel() : blocks;
+    }
+
+    // Every block derives its own generator from the seed and its number, independent of thread
+    private SplittableRandom blockRandom(int block) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + block);
+    }
+
+    private String[][] playerBlock(int block, int count) {
+        SplittableRandom random = blockRandom(block);
+        String[][] rows = new String[Math.min(BLOCK_SIZE, count - block * BLOCK_SIZE)][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new String[] {
+                FIRST_NAMES[skewed(random, FIRST_NAMES.length)] + " " + LAST_NAMES[skewed(random, LAST_NAMES.length)],
+                POSITIONS[weighted(random, POSITION_WEIGHTS)],
+                COACH_TYPES[weighted(random, COACH_TYPE_WEIGHTS)],
+                TEAM_NAMES[weighted(random, TEAM_WEIGHTS)]
+            };
+        }
+        return rows;
+    }
+
+    private String[][] personBlock(int block, int count, int firstId) {
+        SplittableRandom random = blockRandom(block);
+        String[][] rows = new String[Math.min(BLOCK_SIZE, count - block * BLOCK_SIZE)][];
+        for (int i = 0; i < rows.length; i++) {
+            int id = firstId + block * BLOCK_SIZE + i;
+            String firstName = FIRST_NAMES[skewed(random, FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[skewed(random, LAST_NAMES.length)];
+            String email = Character.toLowerCase(firstName.charAt(0)) + lastName.toLowerCase().replace("'", "")
+                    + id + "@" + EMAIL_DOMAINS[skewed(random, EMAIL_DOMAINS.length)];
+            rows[i] = new String[] {
+                Integer.toString(id), firstName, lastName, email, GENDERS[weighted(random, GENDER_WEIGHTS)]
+            };
+        }
+        return rows;
+    }
+
+    // Favour the start of a list, so a few names are common and the rest rarer, as in real rosters
+    private static int skewed(SplittableRandom random, int size) {
+        double u = random.nextDouble();
+        return (int) (size * u * u);
+    }
+
+    private static int weighted(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int pick = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    // Usage: java RosterGenerator players|people <count> <output file> [seed]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: java RosterGenerator players|people <count> <output file> [seed]");
+            System.exit(1);
+        }
+        int count = Integer.parseInt(args[1]);
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+        RosterGenerator generator = new RosterGenerator(seed, true);
+        long start = System.nanoTime();
+        if (args[0].equals("people")) {
+            generator.writePeople(args[2], count);
+        } else {
+            generator.writePlayers(args[2], count);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("Wrote %d %s to %s in %d ms.%n", count, args[0], args[2], millis);
+    }
+}
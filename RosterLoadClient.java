@@ -0,0 +1,84 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Load generator for RosterServer: many concurrent clients mixing searches and adds,
+// reporting requests per second and latency percentiles
+class RosterLoadClient {
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: java RosterLoadClient <base url> [requests] [clients] [add percent]");
+            System.exit(1);
+        }
+        String baseUrl = args[0];
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int addPercent = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(clients)).build();
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService workers = RosterServer.perRequestExecutor();
+
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            workers.execute(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < requests) {
+                    HttpRequest request = request(baseUrl, addPercent);
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 500) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        failures.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    latencies[i] = System.nanoTime() - sent;
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%d requests from %d clients in %.2f s: %.0f requests/sec, %d failed%n",
+                requests, clients, elapsed / 1e9, requests / (elapsed / 1e9), failures.get());
+        System.out.printf("latency p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+        System.exit(0);
+    }
+
+    private static HttpRequest request(String baseUrl, int addPercent) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String name = RosterGenerator.FIRST_NAMES[random.nextInt(RosterGenerator.FIRST_NAMES.length)] + " "
+                + RosterGenerator.LAST_NAMES[random.nextInt(RosterGenerator.LAST_NAMES.length)];
+        String encoded = URLEncoder.encode(name, StandardCharsets.UTF_8);
+        if (random.nextInt(100) < addPercent) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/players?name=" + encoded))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/players?name=" + encoded)).GET().build();
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
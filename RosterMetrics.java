@@ -0,0 +1,146 @@
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Counters and latency histograms for each menu operation plus file loading. Recording is a
+// couple of striped counter updates, cheap enough to leave on in production.
+class RosterMetrics implements RosterMetricsMBean {
+    static final String LOAD = "LOAD";
+
+    private final Map<MenuOption, LatencyHistogram> latencies = new EnumMap<>(MenuOption.class);
+    private final Map<MenuOption, LongAdder> recordsTouched = new EnumMap<>(MenuOption.class);
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+    private final LongAdder rowsParsed = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder indexHits = new LongAdder();
+    private final LongAdder indexMisses = new LongAdder();
+
+    public RosterMetrics() {
+        for (MenuOption option : MenuOption.values()) {
+            latencies.put(option, new LatencyHistogram());
+            recordsTouched.put(option, new LongAdder());
+        }
+    }
+
+    // Register with the platform MBean server so the metrics show up in JConsole or any JMX client
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("rugbyclub:type=RosterMetrics");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Error registering metrics: " + e.getMessage());
+        }
+    }
+
+    public void record(MenuOption option, long startNanos, long records) {
+        latencies.get(option).record(System.nanoTime() - startNanos);
+        recordsTouched.get(option).add(records);
+    }
+
+    public void recordLoad(long startNanos, long rows, long bytes) {
+        long elapsed = System.nanoTime() - startNanos;
+        loadLatency.record(elapsed);
+        loadNanos.add(elapsed);
+        rowsParsed.add(rows);
+        bytesRead.add(bytes);
+    }
+
+    public void recordBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    public void recordIndexLookup(boolean hit) {
+        (hit ? indexHits : indexMisses).increment();
+    }
+
+    @Override
+    public long getRowsParsed() {
+        return rowsParsed.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public double getRowsParsedPerSecond() {
+        long nanos = loadNanos.sum();
+        return nanos == 0 ? 0 : rowsParsed.sum() * 1e9 / nanos;
+    }
+
+    @Override
+    public double getIndexHitRate() {
+        long hits = indexHits.sum();
+        long total = hits + indexMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public long getCount(String operation) {
+        return histogram(operation).count();
+    }
+
+    @Override
+    public double getMeanMicros(String operation) {
+        return histogram(operation).meanNanos() / 1e3;
+    }
+
+    @Override
+    public double getPercentileMicros(String operation, double percentile) {
+        return histogram(operation).percentileNanos(percentile / 100) / 1e3;
+    }
+
+    private LatencyHistogram histogram(String operation) {
+        if (operation.equalsIgnoreCase(LOAD)) {
+            return loadLatency;
+        }
+        return latencies.get(MenuOption.valueOf(operation.toUpperCase(Locale.ROOT)));
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-24s %10s %12s %12s %12s %12s %14s%n",
+                "operation", "count", "mean us", "p50 us", "p99 us", "max us", "records"));
+        line(out, LOAD, loadLatency, rowsParsed.sum());
+        for (MenuOption option : MenuOption.values()) {
+            LatencyHistogram histogram = latencies.get(option);
+            if (histogram.count() > 0) {
+                line(out, option.name(), histogram, recordsTouched.get(option).sum());
+            }
+        }
+        out.append(String.format("rows parsed %d (%.0f rows/sec), bytes read %d, index hit rate %.1f%%%n",
+                getRowsParsed(), getRowsParsedPerSecond(), getBytesRead(), getIndexHitRate() * 100));
+        return out.toString();
+    }
+
+    private static void line(StringBuilder out, String name, LatencyHistogram histogram, long records) {
+        out.append(String.format("%-24s %10d %12.1f %12.1f %12.1f %12.1f %14d%n", name, histogram.count(),
+                histogram.meanNanos() / 1e3, histogram.percentileNanos(0.50) / 1e3,
+                histogram.percentileNanos(0.99) / 1e3, histogram.percentileNanos(1.0) / 1e3, records));
+    }
+
+    @Override
+    public void reset() {
+        for (MenuOption option : MenuOption.values()) {
+            latencies.get(option).reset();
+            recordsTouched.get(option).reset();
+        }
+        loadLatency.reset();
+        rowsParsed.reset();
+        bytesRead.reset();
+        loadNanos.reset();
+        indexHits.reset();
+        indexMisses.reset();
+    }
+}
@@ -0,0 +1,20 @@
+// Management interface of RosterMetrics, registered as rugbyclub:type=RosterMetrics
+public interface RosterMetricsMBean {
+    long getRowsParsed();
+
+    long getBytesRead();
+
+    double getRowsParsedPerSecond();
+
+    double getIndexHitRate();
+
+    long getCount(String operation);
+
+    double getMeanMicros(String operation);
+
+    double getPercentileMicros(String operation, double percentile);
+
+    String dump();
+
+    void reset();
+}
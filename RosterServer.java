@@ -0,0 +1,195 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Headless front end that exposes the menu operations over HTTP on localhost, all sharing one
+// in-memory roster. Each request runs on its own virtual thread when the JVM has them (Java 21+)
+// and on a cached platform thread pool otherwise.
+//
+//   POST /players?name=..&coach=..&team=..   Add Player
+//   POST /players/random                     Generate Random Player
+//   GET  /records?k=20&sort=full_name        Read, Sort, and Display Records
+//   GET  /players?name=..[&fuzzy=true]      Search for People by Name
+//   GET  /metrics                            Show Metrics
+class RosterServer {
+    static final int DEFAULT_PORT = 8080;
+
+    private final RugbyClubGame game;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public RosterServer(RugbyClubGame game, int port) throws IOException {
+        this.game = game;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = perRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/players", this::players);
+        server.createContext("/records", this::records);
+        server.createContext("/metrics", exchange -> respond(exchange, 200, game.getMetrics().dump()));
+    }
+
+    // One virtual thread per task where available, found reflectively so the code still builds for Java 11
+    static ExecutorService perRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void players(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            Map<String, String> query = query(exchange);
+            if (path.equals("/players/random") && method.equals("POST")) {
+                Player player = game.addRandomPlayer();
+                respond(exchange, 200, added(player));
+            } else if (!path.equals("/players")) {
+                respond(exchange, 404, "Not found\n");
+            } else if (method.equals("GET")) {
+                String name = query.get("name");
+                if (name == null) {
+                    respond(exchange, 400, "Missing name\n");
+                    return;
+                }
+                // fuzzy=true also matches names a typo or two away, closest first
+                List<Player> found = Boolean.parseBoolean(query.get("fuzzy"))
+                        ? game.searchFuzzy(name, NameIndex.typoBound(name))
+                        : game.search(name);
+                StringBuilder body = new StringBuilder();
+                for (Player player : found) {
+                    body.append(String.format("Name: %s - Coach: %s - Team: %s%n", player.getName(), player.getCoach().getType(), player.getTeam().getName()));
+                }
+                if (found.isEmpty()) {
+                    body.append("No players found with the name '").append(name).append("'.\n");
+                }
+                respond(exchange, found.isEmpty() ? 404 : 200, body.toString());
+            } else if (method.equals("POST")) {
+                String name = query.get("name");
+                String coachType = query.getOrDefault("coach", "Head Coach");
+                String teamName = query.getOrDefault("team", "A Squad");
+                if (name == null || name.trim().isEmpty()) {
+                    respond(exchange, 400, "Missing name\n");
+                } else if (!Arrays.asList(RosterGenerator.COACH_TYPES).contains(coachType)) {
+                    respond(exchange, 400, "Unknown coach type '" + coachType + "'\n");
+                } else if (!Arrays.asList(RosterGenerator.TEAM_NAMES).contains(teamName)) {
+                    respond(exchange, 400, "Unknown team '" + teamName + "'\n");
+                } else {
+                    Player player = game.addNamedPlayer(name, coachType, teamName);
+                    respond(exchange, 200, added(player));
+                }
+            } else {
+                respond(exchange, 405, "Method not allowed\n");
+            }
+        } catch (RuntimeException e) {
+            respond(exchange, 500, "Error: " + e.getMessage() + "\n");
+        }
+    }
+
+    private void records(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            respond(exchange, 405, "Method not allowed\n");
+            return;
+        }
+        Map<String, String> query = query(exchange);
+        int k;
+        RecordSortKey sortKey;
+        try {
+            k = Integer.parseInt(query.getOrDefault("k", "20"));
+            sortKey = RecordSortKey.valueOf(query.getOrDefault("sort", "full_name").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, "Bad k or sort\n");
+            return;
+        }
+        try {
+            List<ClubRecord> sorted = game.topRecords("Club_Form.txt", k, sortKey);
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < sorted.size(); i++) {
+                body.append(i + 1).append(". ").append(sorted.get(i).getLine()).append('\n');
+            }
+            respond(exchange, 200, body.toString());
+        } catch (IOException e) {
+            respond(exchange, 500, "Error reading file: " + e.getMessage() + "\n");
+        }
+    }
+
+    private static String added(Player player) {
+        return String.format("\"%s\" has been added as \"%s\" to \"%s\" successfully!%n",
+                player.getName(), player.getCoach().getType(), player.getTeam().getName());
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> result = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return result;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                result.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return result;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Usage: java RugbyClubGame --serve <filename> [port]
+    public static void main(String[] args) {
+        String filename = args[1];
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PORT;
+        RugbyClubGame game = new RugbyClubGame();
+        game.deduplicateImports(true);
+        game.getMetrics().registerMBean();
+        game.readFile(filename);
+        game.openJournal(filename);
+        try {
+            RosterServer server = new RosterServer(game, port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                game.closeJournal();
+            }));
+            server.start();
+            System.out.println("Serving " + filename + " on http://localhost:" + server.getPort());
+        } catch (IOException e) {
+            System.err.println("Error starting server: " + e.getMessage());
+        }
+    }
+}
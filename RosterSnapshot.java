@@ -0,0 +1,145 @@
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Versioned binary image of the roster: a string table, then coaches and teams as string
+// references and players as a name plus position, coach and team references
+class RosterSnapshot {
+    static final int MAGIC = 0x52434753; // "RCGS"
+    static final int VERSION = 1;
+
+    // Check the magic number without reading the rest of the file
+    static boolean isSnapshot(String filename) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(filename))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Write to a temporary file and move it into place so a crash never leaves half a snapshot
+    static void write(String filename, List<Player> players, EntityRegistry registry) throws IOException {
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<Coach> coaches = new ArrayList<>(registry.getCoaches());
+        List<Team> teams = new ArrayList<>(registry.getTeams());
+        Map<Coach, Integer> coachIds = new IdentityHashMap<>();
+        Map<Team, Integer> teamIds = new IdentityHashMap<>();
+        for (Coach coach : coaches) {
+            coachIds.put(coach, coachIds.size());
+            intern(coach.getName(), strings, stringIds);
+            intern(coach.getType(), strings, stringIds);
+        }
+        for (Team team : teams) {
+            teamIds.put(team, teamIds.size());
+            intern(team.getName(), strings, stringIds);
+        }
+        for (Player player : players) {
+            intern(player.getPosition(), strings, stringIds);
+        }
+
+        Path target = Paths.get(filename).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                writeString(out, string);
+            }
+            out.writeInt(coaches.size());
+            for (Coach coach : coaches) {
+                out.writeInt(stringIds.get(coach.getName()));
+                out.writeInt(stringIds.get(coach.getType()));
+            }
+            out.writeInt(teams.size());
+            for (Team team : teams) {
+                out.writeInt(stringIds.get(team.getName()));
+            }
+            out.writeInt(players.size());
+            for (Player player : players) {
+                writeString(out, player.getName());
+                out.writeInt(stringIds.get(player.getPosition()));
+                out.writeInt(coachIds.get(player.getCoach()));
+                out.writeInt(teamIds.get(player.getTeam()));
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Map the snapshot and append its players to the table, returning how many were read
+    static int read(String filename, EntityRegistry registry, PlayerTable players) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException(filename + " is not a roster snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readString(buffer);
+            }
+            Coach[] coaches = new Coach[buffer.getInt()];
+            for (int i = 0; i < coaches.length; i++) {
+                String name = strings[buffer.getInt()];
+                coaches[i] = registry.coach(name, strings[buffer.getInt()]);
+            }
+            Team[] teams = new Team[buffer.getInt()];
+            for (int i = 0; i < teams.length; i++) {
+                teams[i] = registry.team(strings[buffer.getInt()]);
+            }
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                String name = readString(buffer);
+                String position = strings[buffer.getInt()];
+                Coach coach = coaches[buffer.getInt()];
+                players.append(name, position, coach, teams[buffer.getInt()]);
+            }
+            return count;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException(filename + " is truncated or corrupt");
+        }
+    }
+
+    private static void intern(String string, List<String> strings, Map<String, Integer> stringIds) {
+        if (!stringIds.containsKey(string)) {
+            stringIds.put(string, strings.size());
+            strings.add(string);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
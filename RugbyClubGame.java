@@ -1,215 +1,425 @@
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 import java.util.Scanner;
-import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
-class Player {
-    private String name;
-    private String position;
-    private Coach coach;
-    private Team team;
-
-    public Player(String name, String position, Coach coach, Team team) {
-        this.name = name;
-        this.position = position;
-        this.coach = coach;
-        this.team = team;
-    }
+public class RugbyClubGame {
+    private static final int DISPLAY_LIMIT = 20;
+    // Files at least this large are loaded in parallel chunks
+    private static final long PARALLEL_LOAD_THRESHOLD = 16L * 1024 * 1024;
+    private static final long MIN_CHUNK_SIZE = 4L * 1024 * 1024;
+    // The journal is folded back into the base file once it holds this many players
+    private static final int COMPACTION_THRESHOLD = 10000;
+    // Sorted report views are kept for files adding up to at most this many bytes
+    private static final long SORTED_VIEW_BUDGET = 32L * 1024 * 1024;
+    static final Pager.Renderer<ClubRecord> NUMBERED_LINE =
+            (index, record, out) -> out.append(index + 1).append(". ").append(record.getLine());
+    static final Pager.Renderer<Player> PLAYER_LINE = (index, player, out) -> out.append("Name: ").append(player.getName())
+            .append(" - Coach: ").append(player.getCoach().getType())
+            .append(" - Team: ").append(player.getTeam().getName());
+
+    private PlayerTable players;
+    private EntityRegistry registry;
+    private NameIndex<Player> nameIndex;
+    private final AttributeIndex<PlayerAttribute> attributes = new AttributeIndex<>(PlayerAttribute.class);
+    private String baseFile;
+    private PlayerJournal journal;
+    // Writers hold this lock; readers only see players below the committed count, so a
+    // player becomes visible in the roster, its team and the name index at the same moment
+    private final Object writeLock = new Object();
+    private volatile int committed;
+    private final RosterMetrics metrics = new RosterMetrics();
+    // Rows already imported when duplicate filtering is on; null loads every row
+    private volatile Deduplicator imports;
+    private final SortedViewCache sortedViews = new SortedViewCache(SORTED_VIEW_BUDGET, metrics::recordBytesRead);
 
-    public String getName() {
-        return name;
+    public RugbyClubGame() {
+        players = new PlayerTable();
+        registry = new EntityRegistry();
+        nameIndex = new NameIndex<>();
     }
 
-    public String getPosition() {
-        return position;
+    // Skip rows identical to one already imported from now on, optionally reporting near misses
+    void deduplicateImports(boolean findNearDuplicates) {
+        imports = new Deduplicator(findNearDuplicates);
     }
 
-    public Coach getCoach() {
-        return coach;
+    // Read the file and initialize data
+    void readFile(String filename) {
+        long start = System.nanoTime();
+        int before = players.size();
+        loadFile(filename);
+        metrics.recordLoad(start, players.size() - before, new File(filename).length());
+        System.out.print(importSummary());
     }
 
-    public Team getTeam() {
-        return team;
+    // Duplicates skipped and near-duplicates found since the last summary
+    String importSummary() {
+        Deduplicator filter = imports;
+        return filter == null ? "" : filter.summary();
     }
 
-    @Override
-    public String toString() {
-        return name + " (" + position + "), Coach: " + coach.getName() + ", Team: " + team.getName();
+    // A player is the same as an earlier import if name, position, coach and team all match
+    private boolean isNewImport(String name, String position, String coachName, String coachType, String teamName) {
+        Deduplicator filter = imports;
+        return filter == null || filter.add(name, position + "|" + coachName + "|" + coachType + "|" + teamName);
     }
-}
 
-class Coach {
-    private String name;
-    private String type;
+    private void loadFile(String filename) {
+        if (RosterSnapshot.isSnapshot(filename)) {
+            loadSnapshot(filename);
+            return;
+        }
+        try (MappedCsvReader reader = new MappedCsvReader(filename)) {
+            if (reader.size() >= PARALLEL_LOAD_THRESHOLD) {
+                readFileParallel(filename);
+                return;
+            }
+            // Skip header line if any
+            // br.readLine();
 
-    public Coach(String name, String type) {
-        this.name = name;
-        this.type = type;
+            synchronized (writeLock) {
+                reader.forEach(row -> {
+                    Player player = parsePlayer(row, players, true);
+                    if (player != null) {
+                        registerPlayer(player);
+                    }
+                });
+                commit();
+            }
+            System.out.println("File read successfully.");
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+        }
     }
 
-    public String getName() {
-        return name;
-    }
+    // Read the file in line-aligned chunks on the common fork-join pool. Coaches and teams
+    // are shared through the registry; players are merged on this thread in file order.
+    private void readFileParallel(String filename) {
+        try {
+            long size = new File(filename).length();
+            int chunks = (int) Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L, size / MIN_CHUNK_SIZE));
+            long[] points = MappedCsvReader.splitPoints(filename, chunks);
+
+            List<Future<PlayerTable>> futures = new ArrayList<>();
+            for (int i = 0; i + 1 < points.length; i++) {
+                long start = points[i];
+                long end = points[i + 1];
+                Callable<PlayerTable> task = () -> {
+                    PlayerTable chunk = new PlayerTable();
+                    try (MappedCsvReader reader = new MappedCsvReader(filename, start, end)) {
+                        // Duplicates are filtered when the chunks are merged, in file order
+                        reader.forEach(row -> parsePlayer(row, chunk, false));
+                    }
+                    return chunk;
+                };
+                futures.add(ForkJoinPool.commonPool().submit(task));
+            }
 
-    public String getType() {
-        return type;
+            for (Future<PlayerTable> future : futures) {
+                for (Player player : future.get()) {
+                    // Chunks are filtered here, in file order, so the first copy of a row is kept
+                    if (isNewImport(player.getName(), player.getPosition(), player.getCoach().getName(),
+                            player.getCoach().getType(), player.getTeam().getName())) {
+                        addPlayer(player.getName(), player.getPosition(), player.getCoach(), player.getTeam());
+                    }
+                }
+            }
+            System.out.println("File read successfully.");
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+        } catch (ExecutionException e) {
+            System.err.println("Error reading file: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Error reading file: interrupted");
+        }
     }
 
-    @Override
-    public String toString() {
-        return name + " (" + type + ")";
-    }
-}
+    // Assuming each line is a comma-separated value (CSV) of the format:
+    // PlayerName,Position,CoachName,CoachType,TeamName
+    // Each field is decoded once; with filterDuplicates, a row matching an earlier import is
+    // dropped before anything is stored and null is returned, as for a malformed row.
+    private Player parsePlayer(MappedCsvReader.Row row, PlayerTable table, boolean filterDuplicates) {
+        if (row.fieldCount() != 5) {
+            return null;
+        }
+        // Extract data from the line
+        String playerName = row.field(0);
+        String position = row.field(1);
+        String coachName = row.field(2);
+        String coachType = row.field(3);
+        String teamName = row.field(4);
+        if (filterDuplicates && !isNewImport(playerName, position, coachName, coachType, teamName)) {
+            return null;
+        }
 
-class Team {
-    private String name;
-    private List<Player> players;
+        // Find or create coach and team
+        Coach coach = findOrCreateCoach(coachName, coachType);
+        Team team = findOrCreateTeam(teamName);
 
-    public Team(String name) {
-        this.name = name;
-        this.players = new ArrayList<>();
+        // Store the player; it is added to the team list and name index by the caller
+        return table.append(playerName, position, coach, team);
     }
 
-    public String getName() {
-        return name;
+    // Restore the roster from a binary snapshot written by saveSnapshot
+    private void loadSnapshot(String filename) {
+        synchronized (writeLock) {
+            int first = players.size();
+            try {
+                RosterSnapshot.read(filename, registry, players);
+                System.out.println("Snapshot loaded successfully.");
+            } catch (IOException e) {
+                System.err.println("Error reading file: " + e.getMessage());
+            } finally {
+                // Register whatever was appended, even if the snapshot turned out to be truncated
+                for (int i = first; i < players.size(); i++) {
+                    registerPlayer(players.get(i));
+                }
+                commit();
+            }
+        }
     }
 
-    public void addPlayer(Player player) {
-        players.add(player);
+    // Save the roster as a binary snapshot that can be given as the filename on the next start
+    private void saveSnapshot(Scanner scanner) {
+        scanner.nextLine(); // Consume newline left over
+        System.out.print("Please enter the snapshot filename: ");
+        String filename = scanner.nextLine();
+        try {
+            long start = System.nanoTime();
+            // Hold off writers so the coaches and teams written match the players
+            synchronized (writeLock) {
+                RosterSnapshot.write(filename, players, registry);
+            }
+            metrics.record(MenuOption.SAVE_SNAPSHOT, start, players.size());
+            System.out.printf("Saved %d players to \"%s\".%n", players.size(), filename);
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot: " + e.getMessage());
+        }
     }
 
-    public List<Player> getPlayers() {
-        return players;
+    // Sort a Club_Form file of any size into another file, then show its first records
+    private void sortFileToDisk(Scanner scanner) {
+        scanner.nextLine(); // Consume newline left over
+        System.out.print("Please enter the file to sort: ");
+        String input = scanner.nextLine();
+        System.out.print("Please enter the output filename: ");
+        String output = scanner.nextLine();
+        RecordSortKey[] keys = RecordSortKey.values();
+        for (int i = 0; i < keys.length; i++) {
+            System.out.println((i + 1) + ". " + keys[i]);
+        }
+        System.out.print("Sort by: ");
+        int choice = Integer.parseInt(scanner.nextLine().trim());
+        if (choice < 1 || choice > keys.length) {
+            System.out.println("Invalid choice.");
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            ExternalSorter sorter = new ExternalSorter(keys[choice - 1], ExternalSorter.DEFAULT_BUDGET,
+                    Paths.get(System.getProperty("java.io.tmpdir")), true);
+            long lines = sorter.sort(input, output);
+            metrics.recordBytesRead(new File(input).length());
+            metrics.record(MenuOption.SORT_FILE_TO_DISK, start, lines);
+            System.out.printf("Sorted %d lines into \"%s\".%n", lines, output);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error sorting file: " + e.getMessage());
+            return;
+        }
+        try (BufferedReader br = Files.newBufferedReader(Paths.get(output), StandardCharsets.UTF_8)) {
+            System.out.println("First " + DISPLAY_LIMIT + " records:");
+            String line;
+            for (int i = 1; i <= DISPLAY_LIMIT && (line = br.readLine()) != null; i++) {
+                System.out.println(i + ". " + line);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading sorted file: " + e.getMessage());
+        }
     }
 
-    @Override
-    public String toString() {
-        return name + " Team";
+    // Open the journal next to the base file and replay the players added in earlier sessions
+    void openJournal(String filename) {
+        baseFile = filename;
+        try {
+            journal = new PlayerJournal(filename + ".journal", PlayerJournal.fingerprint(filename));
+            int replayed = journal.replay((name, position, coachName, coachType, teamName) ->
+                    addPlayer(name, position, findOrCreateCoach(coachName, coachType), findOrCreateTeam(teamName)));
+            if (replayed > 0) {
+                System.out.println("Replayed " + replayed + " players from the journal.");
+            }
+        } catch (IOException e) {
+            System.err.println("Error opening journal: " + e.getMessage());
+            journal = null;
+        }
     }
-}
 
-enum MenuOption {
-    ADD_PLAYER("Add Player"),
-    GENERATE_RANDOM_PLAYER("Generate Random Player"),
-    READ_SORT_DISPLAY("Read, Sort, and Display Records"),
-    SEARCH_BY_NAME("Search for People by Name"),
-    EXIT("Exit");
-
-    private final String description;
+    // Add a player and make it durable. The journal record is buffered under the write lock,
+    // so compaction never sees a player without its record; the sync happens outside it, so
+    // concurrent writers share one fsync. A lone interactive add is synced on its own, on
+    // purpose: the menu reports the player as added, so it must survive a crash right after.
+    // Bulk adds go through addPlayers and generateRandomPlayers, which sync once per group.
+    Player addDurablePlayer(String name, String position, Coach coach, Team team) {
+        Player player;
+        synchronized (writeLock) {
+            player = addPlayer(name, position, coach, team);
+            if (journal == null) {
+                return player;
+            }
+            try {
+                journal.append(player);
+            } catch (IOException e) {
+                System.err.println("Error writing journal: " + e.getMessage());
+                return player;
+            }
+        }
+        syncJournal();
+        return player;
+    }
 
-    MenuOption(String description) {
-        this.description = description;
+    // Flush buffered journal records, compacting the journal once it grows large
+    private void syncJournal() {
+        try {
+            journal.flush();
+            synchronized (writeLock) {
+                if (journal.size() >= COMPACTION_THRESHOLD) {
+                    compact();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing journal: " + e.getMessage());
+        }
     }
 
-    @Override
-    public String toString() {
-        return description;
+    // Rewrite the base file with the whole roster, then start an empty journal against it.
+    // Callers hold the write lock.
+    private void compact() throws IOException {
+        journal.flush();
+        if (RosterSnapshot.isSnapshot(baseFile)) {
+            RosterSnapshot.write(baseFile, players, registry);
+        } else {
+            writeRosterCsv(baseFile);
+        }
+        journal.reset(PlayerJournal.fingerprint(baseFile));
     }
 
-    public static MenuOption fromInt(int optionNumber) {
-        return MenuOption.values()[optionNumber - 1];
+    // Write the roster in the PlayerName,Position,CoachName,CoachType,TeamName format readFile expects
+    private void writeRosterCsv(String filename) throws IOException {
+        Path target = Paths.get(filename).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Player player : players) {
+                out.write(csvField(player.getName()));
+                out.write(',');
+                out.write(csvField(player.getPosition()));
+                out.write(',');
+                out.write(csvField(player.getCoach().getName()));
+                out.write(',');
+                out.write(csvField(player.getCoach().getType()));
+                out.write(',');
+                out.write(csvField(player.getTeam().getName()));
+                out.newLine();
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
-}
 
-public class RugbyClubGame {
-    private List<Player> players;
-    private List<Coach> coaches;
-    private List<Team> teams;
+    // Quote a field if it holds a comma, quote or line break
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
 
-    public RugbyClubGame() {
-        players = new ArrayList<>();
-        coaches = new ArrayList<>();
-        teams = new ArrayList<>();
+    // Flush anything still buffered in the journal before the program ends
+    void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Error closing journal: " + e.getMessage());
+        }
+        journal = null;
     }
 
-    // Read the file and initialize data
-    private void readFile(String filename) {
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            // Skip header line if any
-            // br.readLine();
+    // Define the readSortDisplay method here
+    private void readSortDisplay(Scanner scanner) {
+        scanner.nextLine(); // Consume newline left over
+        readSortDisplay(scanner, "Club_Form.txt", RecordSortKey.FULL_NAME);
+    }
 
-            String line;
-            while ((line = br.readLine()) != null) {
-                // Assuming each line is a comma-separated value (CSV) of the format:
-                // PlayerName,Position,CoachName,CoachType,TeamName
-                String[] data = line.split(",");
-                if (data.length == 5) {
-                    // Extract data from the line
-                    String playerName = data[0];
-                    String position = data[1];
-                    String coachName = data[2];
-                    String coachType = data[3];
-                    String teamName = data[4];
-
-                    // Find or create coach and team
-                    Coach coach = findOrCreateCoach(coachName, coachType);
-                    Team team = findOrCreateTeam(teamName);
-
-                    // Create a player object and add it to the team and player list
-                    Player player = new Player(playerName, position, coach, team);
-                    team.addPlayer(player);
-                    players.add(player);
-                }
+    // Show the file's records in the given order a page at a time. Files small enough for the
+    // sorted view cache are paged by index; larger ones are sorted on disk and paged by reading
+    // the merged runs only as far as the pages shown.
+    private void readSortDisplay(Scanner scanner, String filename, RecordSortKey sortKey) {
+        try {
+            long start = System.nanoTime();
+            ClubRecord[] sorted = sortedViews.sorted(filename, sortKey);
+            if (sorted != null) {
+                metrics.record(MenuOption.READ_SORT_DISPLAY, start, sorted.length);
+                System.out.println("File read successfully.");
+                new Pager<>(Arrays.asList(sorted), DISPLAY_LIMIT).browse(scanner, NUMBERED_LINE);
+                return;
             }
-            System.out.println("File read successfully.");
-        } catch (IOException e) {
+            ExternalSorter sorter = new ExternalSorter(sortKey, ExternalSorter.DEFAULT_BUDGET,
+                    Paths.get(System.getProperty("java.io.tmpdir")), true);
+            try (ExternalSorter.Cursor cursor = sorter.open(filename)) {
+                metrics.recordBytesRead(new File(filename).length());
+                metrics.record(MenuOption.READ_SORT_DISPLAY, start, 0);
+                System.out.println("File read successfully.");
+                new Pager<>(cursor, DISPLAY_LIMIT).browse(scanner, NUMBERED_LINE);
+            }
+        } catch (IOException | UncheckedIOException e) {
             System.err.println("Error reading file: " + e.getMessage());
         }
     }
 
-    // Define the readSortDisplay method here
-    private void readSortDisplay() {
-        // Create a list to store names from the file
-        List<String> records = new ArrayList<>();
-        // Read the file and store names
-        try (BufferedReader br = new BufferedReader(new FileReader("Club_Form.txt"))) {
+    // Return the first k records of the file in the given order, from the cached sorted view
+    // when the file is small enough to keep one, otherwise by streaming the file once
+    List<ClubRecord> topRecords(String filename, int k, RecordSortKey sortKey) throws IOException {
+        long start = System.nanoTime();
+        ClubRecord[] sorted = sortedViews.sorted(filename, sortKey);
+        if (sorted != null) {
+            List<ClubRecord> result = Arrays.asList(sorted).subList(0, Math.max(0, Math.min(k, sorted.length)));
+            metrics.record(MenuOption.READ_SORT_DISPLAY, start, result.size());
+            return result;
+        }
+        // Only the best k records seen so far are kept in memory
+        ClubRecord.TopK topK = new ClubRecord.TopK(k, sortKey);
+        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
             // Skip header line if any
             // br.readLine();
 
             String line;
             while ((line = br.readLine()) != null) {
-                // Assuming each line contains a name
-                records.add(line.trim());
+                topK.offer(line.trim());
             }
-            System.out.println("File read successfully.");
-        } catch (IOException e) {
-            System.err.println("Error reading file: " + e.getMessage());
-            return;
-        }
-
-        // Sort the list of names alphabetically
-        Comparator<String> nameComparator = (record1, record2) -> {
-            // Parse the first record
-            String[] data1 = record1.split(",");
-            String firstName1 = data1[1];
-            String lastName1 = data1[2];
-            String fullName1 = firstName1 + " " + lastName1;
-
-            // Parse the second record
-            String[] data2 = record2.split(",");
-            String firstName2 = data2[1];
-            String lastName2 = data2[2];
-            String fullName2 = firstName2 + " " + lastName2;
-            // Compare the full names
-            return fullName1.compareToIgnoreCase(fullName2);
-        };
-
-        // Sort the list of records by full name using the defined comparator
-        Collections.sort(records, nameComparator);
-
-
-
-        // Display the first 20 records of the sorted list
-        System.out.println("First 20 records:");
-        for (int i = 0; i < Math.min(20, records.size()); i++) {
-            System.out.println((i + 1) + ". " + records.get(i));
         }
-    
+        metrics.recordBytesRead(new File(filename).length());
+        metrics.record(MenuOption.READ_SORT_DISPLAY, start, topK.offered());
+        return topK.result();
     }
 
     // Add new player functionality
@@ -262,89 +472,288 @@ public class RugbyClubGame {
                 teamName = "A Squad";
         }
 
-        // Create coach and team if not exist
-        Coach coach = findOrCreateCoach("Coach", coachType);
-        Team team = findOrCreateTeam(teamName);
-
-        Player newPlayer = new Player(playerName, "Player Position", coach, team);
-        players.add(newPlayer);
-        team.addPlayer(newPlayer);
+        addNamedPlayer(playerName, coachType, teamName);
 
         System.out.printf("\n\"%s\" has been added as \"%s\" to \"%s\" successfully!%n", playerName, coachType, teamName);
     }
 
     // Generate random player functionality
     private void generateRandomPlayer() {
-        Random random = new Random();
-        String[] firstNames = {"John", "David", "Michael", "Chris", "Daniel", "Paul", "Sarah", "Jessica", "Emily", "Samantha"};
-        String[] lastNames = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Davis", "Miller", "Wilson", "Moore", "Taylor"};
-        String[] positions = {"Forward", "Back"};
-        String[] coachTypes = {"Head Coach", "Assistant Coach", "Scrum Coach"};
-        String[] teamNames = {"A Squad", "B Squad", "Under-13 Squad"};
-
-        // Generate random data
-        String firstName = firstNames[random.nextInt(firstNames.length)];
-        String lastName = lastNames[random.nextInt(lastNames.length)];
-        String playerName = firstName + " " + lastName;
-        String position = positions[random.nextInt(positions.length)];
-        String coachType = coachTypes[random.nextInt(coachTypes.length)];
-        String teamName = teamNames[random.nextInt(teamNames.length)];
+        Player player = addRandomPlayer();
+        System.out.printf("\n\"%s\" has been added as \"%s\" to \"%s\" successfully!%n", player.getName(), player.getCoach().getType(), player.getTeam().getName());
+    }
 
+    // Add a player under the staff coach of the given type, as the Add Player menu does
+    Player addNamedPlayer(String playerName, String coachType, String teamName) {
+        long start = System.nanoTime();
+        // Create coach and team if not exist
         Coach coach = findOrCreateCoach("Coach", coachType);
         Team team = findOrCreateTeam(teamName);
 
-        Player randomPlayer = new Player(playerName, position, coach, team);
-        players.add(randomPlayer);
-        team.addPlayer(randomPlayer);
+        Player player = addDurablePlayer(playerName, "Player Position", coach, team);
+        metrics.record(MenuOption.ADD_PLAYER, start, 1);
+        return player;
+    }
 
-        System.out.printf("\n\"%s\" has been added as \"%s\" to \"%s\" successfully!%n", playerName, coachType, teamName);
+    // Add one random player and return it
+    Player addRandomPlayer() {
+        long start = System.nanoTime();
+        Player[] added = new Player[1];
+        RosterGenerator.randomPlayer((playerName, position, coachType, teamName) -> {
+            Coach coach = findOrCreateCoach("Coach", coachType);
+            Team team = findOrCreateTeam(teamName);
+
+            added[0] = addDurablePlayer(playerName, position, coach, team);
+        });
+        metrics.record(MenuOption.GENERATE_RANDOM_PLAYER, start, 1);
+        return added[0];
     }
 
+    // Add a group of players as one step: they become visible together and their journal
+    // records are synced once. Each row is name, position, coach name, coach type and team.
+    // Rows matching an earlier import are skipped when duplicate filtering is on.
+    // Returns the number of players added.
+    int addPlayers(List<String[]> rows) {
+        long start = System.nanoTime();
+        int added = 0;
+        try {
+            synchronized (writeLock) {
+                try {
+                    for (String[] row : rows) {
+                        if (!isNewImport(row[0], row[1], row[2], row[3], row[4])) {
+                            continue;
+                        }
+                        Player player = players.append(row[0], row[1], findOrCreateCoach(row[2], row[3]), findOrCreateTeam(row[4]));
+                        registerPlayer(player);
+                        added++;
+                        if (journal != null) {
+                            journal.append(player);
+                        }
+                    }
+                } finally {
+                    commit();
+                }
+            }
+            if (journal != null) {
+                syncJournal();
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing journal: " + e.getMessage());
+        }
+        metrics.record(MenuOption.ADD_PLAYER, start, added);
+        return added;
+    }
+
+    // Generate count players from a seed, journaling them as one group; returns the number
+    // added, which falls short of count only if writing the journal failed part way
+    int generateRandomPlayers(int count, long seed) {
+        RosterGenerator generator = new RosterGenerator(seed, true);
+        int[] added = {0};
+        try {
+            synchronized (writeLock) {
+                generator.players(count, (playerName, position, coachType, teamName) -> {
+                    Player player = addPlayer(playerName, position, findOrCreateCoach("Coach", coachType), findOrCreateTeam(teamName));
+                    added[0]++;
+                    if (journal != null) {
+                        try {
+                            journal.append(player);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+            }
+            if (journal != null) {
+                syncJournal();
+            }
+        } catch (UncheckedIOException e) {
+            System.err.println("Error writing journal: " + e.getMessage());
+        }
+        return added[0];
+    }
+
+
     // Define the searchByName method
     private void searchByName(Scanner scanner) {
         scanner.nextLine(); // Consume newline left over
         System.out.print("Enter the name to search for: ");
         String searchName = scanner.nextLine();
 
-        boolean found = false;
-        for (Player player : players) {
-            if (player.getName().equalsIgnoreCase(searchName)) {
-                System.out.printf("Name: %s - Coach: %s - Team: %s%n", player.getName(), player.getCoach().getType(), player.getTeam().getName());
-                found = true;
+        List<Player> found = search(searchName);
+        if (found.isEmpty()) {
+            // Fall back to names a typo or two away
+            found = searchFuzzy(searchName, NameIndex.typoBound(searchName));
+            if (found.isEmpty()) {
+                System.out.println("No players found with the name '" + searchName + "'.");
+                return;
             }
+            System.out.println("No exact match for '" + searchName + "'. Closest names:");
         }
+        new Pager<>(found, DISPLAY_LIMIT).browse(scanner, PLAYER_LINE);
+    }
+
+    // Return the players whose full name matches, ignoring case
+    public List<Player> search(String name) {
+        long start = System.nanoTime();
+        List<Player> found = committedPrefix(nameIndex.exact(name));
+        metrics.recordIndexLookup(!found.isEmpty());
+        metrics.record(MenuOption.SEARCH_BY_NAME, start, found.size());
+        return found;
+    }
 
-        if (!found) {
-            System.out.println("No players found with the name '" + searchName + "'.");
+    // Return the players with a name starting with the given prefix
+    public List<Player> searchPrefix(String prefix) {
+        int visible = committed;
+        List<Player> found = nameIndex.prefix(prefix);
+        found.removeIf(player -> player.getRow() >= visible);
+        metrics.recordIndexLookup(!found.isEmpty());
+        return found;
+    }
+
+    // Return the players whose name contains the given word, e.g. a surname
+    public List<Player> searchToken(String word) {
+        List<Player> found = committedPrefix(nameIndex.token(word));
+        metrics.recordIndexLookup(!found.isEmpty());
+        return found;
+    }
+
+    // Return the players whose name is within maxDistance edits of the given name, closest first
+    public List<Player> searchFuzzy(String name, int maxDistance) {
+        long start = System.nanoTime();
+        int visible = committed;
+        List<Player> found = nameIndex.fuzzy(name, maxDistance);
+        found.removeIf(player -> player.getRow() >= visible);
+        metrics.recordIndexLookup(!found.isEmpty());
+        metrics.record(MenuOption.SEARCH_BY_NAME, start, found.size());
+        return found;
+    }
+
+    // Return the players matching every condition, in roster order
+    public List<Player> findPlayers(Map<PlayerAttribute, String> conditions) {
+        long start = System.nanoTime();
+        int[] rows = attributes.filter(conditions, committed);
+        List<Player> found = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            found.add(players.get(row));
         }
+        metrics.record(MenuOption.QUERY_PLAYERS, start, rows.length);
+        return found;
     }
 
-    // Find or create a coach
-    private Coach findOrCreateCoach(String coachName, String coachType) {
-        for (Coach coach : coaches) {
-            if (coach.getName().equals(coachName) && coach.getType().equals(coachType)) {
-                return coach;
+    // Count the players matching every condition, e.g. Forwards in the Under-13 Squad
+    public int countPlayers(Map<PlayerAttribute, String> conditions) {
+        long start = System.nanoTime();
+        int count = attributes.count(conditions, committed);
+        metrics.record(MenuOption.QUERY_PLAYERS, start, count);
+        return count;
+    }
+
+    // Count the players matching every condition for each value of one attribute
+    public Map<String, Integer> countPlayersBy(PlayerAttribute groupBy, Map<PlayerAttribute, String> conditions) {
+        long start = System.nanoTime();
+        Map<String, Integer> counts = attributes.countBy(groupBy, conditions, committed);
+        metrics.record(MenuOption.QUERY_PLAYERS, start, counts.size());
+        return counts;
+    }
+
+    // Ask for a value of each attribute, then count the matches in total and per team
+    private void queryPlayers(Scanner scanner) {
+        scanner.nextLine(); // Consume newline left over
+        Map<PlayerAttribute, String> conditions = new EnumMap<>(PlayerAttribute.class);
+        for (PlayerAttribute attribute : PlayerAttribute.values()) {
+            System.out.print(attribute + " " + attributes.values(attribute) + " (blank for any): ");
+            String value = scanner.nextLine().trim();
+            if (!value.isEmpty()) {
+                conditions.put(attribute, value);
             }
         }
-        Coach newCoach = new Coach(coachName, coachType);
-        coaches.add(newCoach);
-        return newCoach;
+        System.out.println("Matching players: " + countPlayers(conditions));
+        for (Map.Entry<String, Integer> group : countPlayersBy(PlayerAttribute.TEAM, conditions).entrySet()) {
+            System.out.println("  " + group.getKey() + ": " + group.getValue());
+        }
     }
 
-    // Find or create a team
-    private Team findOrCreateTeam(String teamName) {
-        for (Team team : teams) {
-            if (team.getName().equals(teamName)) {
-                return team;
-            }
+    RosterMetrics getMetrics() {
+        return metrics;
+    }
+
+    // A consistent read-only view of the roster as of the last completed add
+    public List<Player> getPlayers() {
+        return Collections.unmodifiableList(players.subList(0, committed));
+    }
+
+    // A consistent read-only view of one team as of the last completed add
+    public List<Player> getTeamPlayers(Team team) {
+        return committedPrefix(team.getPlayers());
+    }
+
+    // Lists filled in roster order hold committed players first; cut off any added since
+    private List<Player> committedPrefix(List<Player> list) {
+        int visible = committed;
+        int end = list.size();
+        while (end > 0 && list.get(end - 1).getRow() >= visible) {
+            end--;
         }
-        Team newTeam = new Team(teamName);
-        teams.add(newTeam);
-        return newTeam;
+        return list.subList(0, end);
+    }
+
+    // Store a player in the roster and register it with its team and the name index
+    private Player addPlayer(String name, String position, Coach coach, Team team) {
+        synchronized (writeLock) {
+            Player player = players.append(name, position, coach, team);
+            registerPlayer(player);
+            commit();
+            return player;
+        }
+    }
+
+    private void registerPlayer(Player player) {
+        player.getTeam().addPlayer(player);
+        nameIndex.add(player.getName(), player);
+        attributes.add(player.getRow(), PlayerAttribute.POSITION, player.getPosition());
+        attributes.add(player.getRow(), PlayerAttribute.COACH_TYPE, player.getCoach().getType());
+        attributes.add(player.getRow(), PlayerAttribute.TEAM, player.getTeam().getName());
+    }
+
+    // Make every player registered so far visible to readers
+    private void commit() {
+        committed = players.size();
+    }
+
+    // Find or create a coach
+    Coach findOrCreateCoach(String coachName, String coachType) {
+        return registry.coach(coachName, coachType);
+    }
+
+    // Find or create a team
+    Team findOrCreateTeam(String teamName) {
+        return registry.team(teamName);
     }
 
     public static void main(String[] args) {
+        // Headless mode: java RugbyClubGame --serve <filename> [port]
+        if (args.length >= 2 && args[0].equals("--serve")) {
+            RosterServer.main(args);
+            return;
+        }
+        // Batch mode: java RugbyClubGame --batch <filename> <commands> [output]
+        if (args.length >= 3 && args[0].equals("--batch")) {
+            CommandBatch.main(args);
+            return;
+        }
+        // Sharded mode: java RugbyClubGame --sharded <filename> [buckets per team] [--processes]
+        if (args.length >= 2 && args[0].equals("--sharded")) {
+            try {
+                ShardedRoster.main(args);
+            } catch (IOException e) {
+                System.err.println("Error reading file: " + e.getMessage());
+            }
+            return;
+        }
+
         RugbyClubGame game = new RugbyClubGame();
+        game.deduplicateImports(true);
+        game.metrics.registerMBean();
         Scanner scanner = new Scanner(System.in);
 
         System.out.print("Please enter the filename to read: ");
@@ -352,6 +761,7 @@ public class RugbyClubGame {
 
         // Call the readFile method with the provided filename
         game.readFile(filename);
+        game.openJournal(filename);
 
         while (true) {
             // Display options for the user
@@ -372,12 +782,25 @@ public class RugbyClubGame {
                     game.generateRandomPlayer();
                     break;
                 case READ_SORT_DISPLAY:
-                    game.readSortDisplay();
+                    game.readSortDisplay(scanner);
                     break;
                 case SEARCH_BY_NAME:
                     game.searchByName(scanner);
                     break;
+                case SAVE_SNAPSHOT:
+                    game.saveSnapshot(scanner);
+                    break;
+                case SHOW_METRICS:
+                    System.out.print(game.metrics.dump());
+                    break;
+                case SORT_FILE_TO_DISK:
+                    game.sortFileToDisk(scanner);
+                    break;
+                case QUERY_PLAYERS:
+                    game.queryPlayers(scanner);
+                    break;
                 case EXIT:
+                    game.closeJournal();
                     System.out.println("Exiting program.");
                     return;
                 default:
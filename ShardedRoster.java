@@ -0,0 +1,858 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Roster partitioned by team. Each team's players live in shards of their own, each with its
+// own table, name index, attribute index and write lock, so adds to different teams never
+// contend and a query about one team reads only that team's shards. A team is one shard, or
+// several hash buckets on the folded player name for large clubs, which keeps an exact name
+// lookup to one bucket per team. Queries over the whole club are scattered to the shards on a
+// worker pool and their results gathered; sorted results are merged in order. Shards live in
+// this JVM or, to test past one heap, each in a child JVM of its own that speaks a small
+// binary protocol over its standard input and output.
+class ShardedRoster implements Closeable {
+    // Rows a load gathers before handing them to their shards at once
+    static final int LOAD_BATCH = 1 << 14;
+    private static final int DISPLAY_LIMIT = 20;
+
+    private final int buckets;
+    private final boolean processes;
+    private final EntityRegistry registry = new EntityRegistry();
+    private final ConcurrentMap<String, Shard[]> teams = new ConcurrentHashMap<>();
+    // Every shard in the order created, each team's buckets side by side; results that tie
+    // across shards come out in this order
+    private final List<Shard> shards = new CopyOnWriteArrayList<>();
+    private final ExecutorService workers;
+
+    // What a shard answers, wherever it runs. Player lists are in the shard's own order.
+    interface Shard extends Closeable {
+        // Add rows of name, position, coach name, coach type and team; returns the number added
+        int add(List<String[]> rows) throws IOException;
+
+        List<Player> all() throws IOException;
+
+        List<Player> search(String name) throws IOException;
+
+        List<Player> searchFuzzy(String name, int maxDistance) throws IOException;
+
+        // The first limit players by name, ignoring case, then in the order they were added
+        List<Player> sorted(int limit) throws IOException;
+
+        int count(Map<PlayerAttribute, String> conditions) throws IOException;
+
+        Map<String, Integer> countBy(PlayerAttribute groupBy, Map<PlayerAttribute, String> conditions) throws IOException;
+
+        int size() throws IOException;
+    }
+
+    private interface ShardCall<R> {
+        R apply(Shard shard) throws IOException;
+    }
+
+    // buckets splits every team that many ways; processes runs each shard in a child JVM
+    public ShardedRoster(int buckets, boolean processes) {
+        this.buckets = Math.max(1, buckets);
+        this.processes = processes;
+        this.workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+            Thread thread = new Thread(task, "roster-shard-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Load a PlayerName,Position,CoachName,CoachType,TeamName file; returns the players added
+    public int readFile(String filename) throws IOException {
+        Map<Shard, List<String[]>> pending = new LinkedHashMap<>();
+        int[] added = {0};
+        int[] gathered = {0};
+        try (MappedCsvReader reader = new MappedCsvReader(filename)) {
+            reader.forEach(row -> {
+                if (row.fieldCount() != 5) {
+                    return;
+                }
+                String[] fields = {row.field(0), row.field(1), row.field(2), row.field(3), row.field(4)};
+                pending.computeIfAbsent(shardFor(fields[4], fields[0]), s -> new ArrayList<>()).add(fields);
+                if (++gathered[0] == LOAD_BATCH) {
+                    added[0] += flush(pending);
+                    gathered[0] = 0;
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return added[0] + flush(pending);
+    }
+
+    // Add rows of name, position, coach name, coach type and team, each shard taking its own
+    // rows under its own lock; returns the number added
+    public int addPlayers(List<String[]> rows) {
+        Map<Shard, List<String[]>> pending = new LinkedHashMap<>();
+        for (String[] row : rows) {
+            pending.computeIfAbsent(shardFor(row[4], row[0]), s -> new ArrayList<>()).add(row);
+        }
+        return flush(pending);
+    }
+
+    private int flush(Map<Shard, List<String[]>> pending) {
+        List<Shard> targets = new ArrayList<>(pending.keySet());
+        int added = 0;
+        for (int count : scatter(targets, shard -> shard.add(pending.get(shard)))) {
+            added += count;
+        }
+        pending.clear();
+        return added;
+    }
+
+    // Players whose name matches exactly, ignoring case; only the name's bucket of each team is read
+    public List<Player> search(String name) {
+        List<Shard> targets = new ArrayList<>();
+        List<Shard> all = shards;
+        for (int s = bucket(name); s < all.size(); s += buckets) {
+            targets.add(all.get(s));
+        }
+        return concat(scatter(targets, shard -> shard.search(name)));
+    }
+
+    // Players whose name is within maxDistance edits of the given name, closest names first
+    public List<Player> searchFuzzy(String name, int maxDistance) {
+        String query = NameIndex.fold(name);
+        List<Player> found = new ArrayList<>(concat(scatter(shards, shard -> shard.searchFuzzy(name, maxDistance))));
+        // Rank as NameIndex does within one shard; the sort is stable, so ties keep shard order
+        Map<String, Integer> distances = new HashMap<>();
+        found.sort(Comparator.comparingInt((Player p) -> distances.computeIfAbsent(NameIndex.fold(p.getName()),
+                key -> TrigramIndex.distance(query, key, maxDistance))).thenComparing(p -> NameIndex.fold(p.getName())));
+        return found;
+    }
+
+    // The first limit players of the club by name, merged from every shard's first limit
+    public List<Player> sorted(int limit) {
+        return merge(scatter(shards, shard -> shard.sorted(limit)), limit);
+    }
+
+    // The players of one team in the order each of its shards added them
+    public List<Player> teamPlayers(String teamName) {
+        return concat(gatherTeam(teamName, Shard::all));
+    }
+
+    // Players of one team whose name matches exactly; reads a single shard
+    public List<Player> searchTeam(String teamName, String name) {
+        Shard[] team = teams.get(teamName);
+        return team == null ? Collections.emptyList() : call(team[bucket(name)], shard -> shard.search(name));
+    }
+
+    // The first limit players of one team by name
+    public List<Player> sortedTeam(String teamName, int limit) {
+        return merge(gatherTeam(teamName, shard -> shard.sorted(limit)), limit);
+    }
+
+    // Count the players matching every condition; a team condition reads only that team's shards
+    public int countPlayers(Map<PlayerAttribute, String> conditions) {
+        int count = 0;
+        for (int shardCount : gather(conditions, shard -> shard.count(conditions))) {
+            count += shardCount;
+        }
+        return count;
+    }
+
+    // Count the players matching every condition for each value of one attribute
+    public Map<String, Integer> countPlayersBy(PlayerAttribute groupBy, Map<PlayerAttribute, String> conditions) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map<String, Integer> shardCounts : gather(conditions, shard -> shard.countBy(groupBy, conditions))) {
+            shardCounts.forEach((value, count) -> counts.merge(value, count, Integer::sum));
+        }
+        return counts;
+    }
+
+    public int size() {
+        int size = 0;
+        for (int shardSize : scatter(shards, Shard::size)) {
+            size += shardSize;
+        }
+        return size;
+    }
+
+    // Players per shard, keyed by team and, when teams are split, bucket
+    public Map<String, Integer> shardSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>(teams.keySet());
+        Collections.sort(names);
+        for (String name : names) {
+            Shard[] team = teams.get(name);
+            for (int b = 0; b < team.length; b++) {
+                sizes.put(buckets == 1 ? name : name + " #" + (b + 1), call(team[b], Shard::size));
+            }
+        }
+        return sizes;
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    // Every shard, or only the team's if the conditions name one
+    private <R> List<R> gather(Map<PlayerAttribute, String> conditions, ShardCall<R> call) {
+        String teamName = conditions.get(PlayerAttribute.TEAM);
+        return teamName == null ? scatter(shards, call) : gatherTeam(teamName, call);
+    }
+
+    // A team's few shards are called on this thread when they are in this JVM, where a lookup
+    // costs less than handing it to the pool
+    private <R> List<R> gatherTeam(String teamName, ShardCall<R> call) {
+        Shard[] team = teams.get(teamName);
+        if (team == null) {
+            return Collections.emptyList();
+        }
+        if (processes) {
+            return scatter(Arrays.asList(team), call);
+        }
+        List<R> results = new ArrayList<>(team.length);
+        for (Shard shard : team) {
+            results.add(call(shard, call));
+        }
+        return results;
+    }
+
+    // A new team's shards are started outside any lock, since starting a child JVM takes far too
+    // long to run inside computeIfAbsent; if another thread added the team first, ours are closed
+    private Shard shardFor(String teamName, String playerName) {
+        Shard[] team = teams.get(teamName);
+        if (team == null) {
+            Shard[] created = createShards(teamName);
+            synchronized (shards) {
+                team = teams.get(teamName);
+                if (team == null) {
+                    // All at once, so the team's buckets stay side by side, and before the team
+                    // is published, so a club-wide query sees any player added through it
+                    shards.addAll(Arrays.asList(created));
+                    teams.put(teamName, created);
+                }
+            }
+            if (team == null) {
+                team = created;
+            } else {
+                closeShards(created);
+            }
+        }
+        return team[bucket(playerName)];
+    }
+
+    private Shard[] createShards(String teamName) {
+        Shard[] team = new Shard[buckets];
+        try {
+            for (int b = 0; b < buckets; b++) {
+                team[b] = processes ? new ProcessShard(registry) : new LocalShard(registry);
+            }
+        } catch (IOException e) {
+            closeShards(team);
+            throw new UncheckedIOException("Error starting shard for " + teamName, e);
+        }
+        return team;
+    }
+
+    private void closeShards(Shard[] team) {
+        for (Shard started : team) {
+            if (started != null) {
+                call(started, shard -> {
+                    shard.close();
+                    return null;
+                });
+            }
+        }
+    }
+
+    private int bucket(String playerName) {
+        return buckets == 1 ? 0 : Math.floorMod(NameIndex.fold(playerName).hashCode(), buckets);
+    }
+
+    // Run the call on every target and return the results in target order. The first target
+    // is called on this thread while the worker pool calls the rest.
+    private <R> List<R> scatter(List<Shard> targets, ShardCall<R> call) {
+        if (targets.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Future<R>> futures = new ArrayList<>(targets.size() - 1);
+        for (Shard shard : targets.subList(1, targets.size())) {
+            futures.add(workers.submit(() -> call.apply(shard)));
+        }
+        List<R> results = new ArrayList<>(targets.size());
+        try {
+            results.add(call.apply(targets.get(0)));
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        } finally {
+            for (Future<R> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    private static <R> R call(Shard shard, ShardCall<R> call) {
+        try {
+            return call.apply(shard);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The lists one after another, as a read-only view rather than a copy
+    private static List<Player> concat(List<List<Player>> lists) {
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        int[] ends = new int[lists.size()];
+        int size = 0;
+        for (int i = 0; i < ends.length; i++) {
+            size += lists.get(i).size();
+            ends[i] = size;
+        }
+        int total = size;
+        return new AbstractList<Player>() {
+            @Override
+            public Player get(int index) {
+                Objects.checkIndex(index, total);
+                int list = Arrays.binarySearch(ends, index + 1);
+                // The first list ending past index; equal ends belong to empty lists before it
+                list = list < 0 ? -list - 1 : list;
+                while (list > 0 && ends[list - 1] == index + 1) {
+                    list--;
+                }
+                return lists.get(list).get(index - (list == 0 ? 0 : ends[list - 1]));
+            }
+
+            @Override
+            public int size() {
+                return total;
+            }
+        };
+    }
+
+    // K-way merge of lists each sorted by name ignoring case, keeping the first limit; ties are taken
+    // from the earlier list, so the result is the same however the shards are scheduled
+    static List<Player> merge(List<List<Player>> lists, int limit) {
+        PriorityQueue<SortedRun> heads = new PriorityQueue<>();
+        for (int i = 0; i < lists.size(); i++) {
+            SortedRun run = new SortedRun(lists.get(i), i);
+            if (run.advance()) {
+                heads.add(run);
+            }
+        }
+        List<Player> merged = new ArrayList<>();
+        while (merged.size() < limit && !heads.isEmpty()) {
+            SortedRun run = heads.poll();
+            merged.add(run.head);
+            if (run.advance()) {
+                heads.add(run);
+            }
+        }
+        return merged;
+    }
+
+    // The next player of one sorted list, with its name read once
+    private static final class SortedRun implements Comparable<SortedRun> {
+        private final List<Player> list;
+        private final int order;
+        private int next;
+        Player head;
+        private String name;
+
+        SortedRun(List<Player> list, int order) {
+            this.list = list;
+            this.order = order;
+        }
+
+        boolean advance() {
+            if (next == list.size()) {
+                return false;
+            }
+            head = list.get(next++);
+            name = head.getName();
+            return true;
+        }
+
+        @Override
+        public int compareTo(SortedRun other) {
+            int c = name.compareToIgnoreCase(other.name);
+            return c != 0 ? c : Integer.compare(order, other.order);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        workers.shutdownNow();
+        IOException failure = null;
+        for (Shard shard : shards) {
+            try {
+                shard.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // A shard in this JVM. Writers hold the write lock and readers see the players below the
+    // committed count, as in RugbyClubGame. The sorted order is kept between reports and
+    // brought up to date by sorting only the players added since and merging them in.
+    static final class LocalShard implements Shard {
+        private final EntityRegistry registry;
+        private final PlayerTable players = new PlayerTable();
+        private final NameIndex<Player> nameIndex = new NameIndex<>();
+        private final AttributeIndex<PlayerAttribute> attributes = new AttributeIndex<>(PlayerAttribute.class);
+        private final Object writeLock = new Object();
+        private volatile int committed;
+        // Case-folded copies of the names, so sorting compares them in place
+        private final FoldedKeyColumn nameKeys = new FoldedKeyColumn();
+        // Rows by name, then row; covers the rows below sortedRows
+        private int[] sortedOrder = new int[0];
+        private int sortedRows;
+
+        LocalShard(EntityRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public int add(List<String[]> rows) {
+            synchronized (writeLock) {
+                try {
+                    for (String[] row : rows) {
+                        Player player = players.append(row[0], row[1], registry.coach(row[2], row[3]), registry.team(row[4]));
+                        nameIndex.add(player.getName(), player);
+                        nameKeys.add(row[0]);
+                        attributes.add(player.getRow(), PlayerAttribute.POSITION, row[1]);
+                        attributes.add(player.getRow(), PlayerAttribute.COACH_TYPE, row[3]);
+                        attributes.add(player.getRow(), PlayerAttribute.TEAM, row[4]);
+                    }
+                } finally {
+                    committed = players.size();
+                }
+            }
+            return rows.size();
+        }
+
+        @Override
+        public List<Player> all() {
+            return Collections.unmodifiableList(players.subList(0, committed));
+        }
+
+        @Override
+        public List<Player> search(String name) {
+            List<Player> found = nameIndex.exact(name);
+            int visible = committed;
+            int end = found.size();
+            while (end > 0 && found.get(end - 1).getRow() >= visible) {
+                end--;
+            }
+            return found.subList(0, end);
+        }
+
+        @Override
+        public List<Player> searchFuzzy(String name, int maxDistance) {
+            int visible = committed;
+            List<Player> found = nameIndex.fuzzy(name, maxDistance);
+            found.removeIf(player -> player.getRow() >= visible);
+            return found;
+        }
+
+        @Override
+        public List<Player> sorted(int limit) {
+            int[] order = sortedOrder();
+            int size = Math.min(limit, order.length);
+            return new AbstractList<Player>() {
+                @Override
+                public Player get(int index) {
+                    return new Player(players, order[Objects.checkIndex(index, size)]);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+
+        // Sort the rows committed since the last report and merge them into the kept order
+        private synchronized int[] sortedOrder() {
+            int visible = committed;
+            if (sortedRows < visible) {
+                int[] added = new int[visible - sortedRows];
+                for (int i = 0; i < added.length; i++) {
+                    added[i] = sortedRows + i;
+                }
+                mergeSort(added, new int[(added.length + 1) / 2], 0, added.length);
+                sortedOrder = merge(sortedOrder, added);
+                sortedRows = visible;
+            }
+            return sortedOrder;
+        }
+
+        // By name ignoring case, then by row, so equal names stay in the order they were added
+        private int compare(int row, int other) {
+            int c = nameKeys.compare(row, other);
+            return c != 0 ? c : Integer.compare(row, other);
+        }
+
+        private void mergeSort(int[] rows, int[] scratch, int from, int to) {
+            if (to - from <= 16) {
+                for (int i = from + 1; i < to; i++) {
+                    int row = rows[i];
+                    int j = i - 1;
+                    while (j >= from && compare(rows[j], row) > 0) {
+                        rows[j + 1] = rows[j];
+                        j--;
+                    }
+                    rows[j + 1] = row;
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            mergeSort(rows, scratch, from, mid);
+            mergeSort(rows, scratch, mid, to);
+            if (compare(rows[mid - 1], rows[mid]) <= 0) {
+                return;
+            }
+            System.arraycopy(rows, from, scratch, 0, mid - from);
+            int left = 0;
+            int leftEnd = mid - from;
+            int right = mid;
+            int out = from;
+            while (left < leftEnd && right < to) {
+                rows[out++] = compare(scratch[left], rows[right]) <= 0 ? scratch[left++] : rows[right++];
+            }
+            System.arraycopy(scratch, left, rows, out, leftEnd - left);
+        }
+
+        // Binary-search each added row into the kept order and copy the runs between insertion
+        // points across without comparing them
+        private int[] merge(int[] sorted, int[] added) {
+            int[] merged = new int[sorted.length + added.length];
+            int from = 0;
+            int out = 0;
+            for (int row : added) {
+                int low = from;
+                int high = sorted.length;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (compare(sorted[mid], row) < 0) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                System.arraycopy(sorted, from, merged, out, low - from);
+                out += low - from;
+                from = low;
+                merged[out++] = row;
+            }
+            System.arraycopy(sorted, from, merged, out, sorted.length - from);
+            return merged;
+        }
+
+        @Override
+        public int count(Map<PlayerAttribute, String> conditions) {
+            return attributes.count(conditions, committed);
+        }
+
+        @Override
+        public Map<String, Integer> countBy(PlayerAttribute groupBy, Map<PlayerAttribute, String> conditions) {
+            return attributes.countBy(groupBy, conditions, committed);
+        }
+
+        @Override
+        public int size() {
+            return committed;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // Request codes of the child process protocol
+    private static final int ADD = 1;
+    private static final int ALL = 2;
+    private static final int SEARCH = 3;
+    private static final int SEARCH_FUZZY = 4;
+    private static final int SORTED = 5;
+    private static final int COUNT = 6;
+    private static final int COUNT_BY = 7;
+    private static final int SIZE = 8;
+
+    // A shard in a child JVM running serve(). Requests to one child are answered one at a
+    // time; different children work in parallel. Players come back as rows and are rebuilt
+    // here with the coaches and teams of this JVM.
+    static final class ProcessShard implements Shard {
+        private final EntityRegistry registry;
+        private final Process process;
+        private final DataOutputStream requests;
+        private final DataInputStream responses;
+
+        ProcessShard(EntityRegistry registry) throws IOException {
+            this.registry = registry;
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "ShardedRoster", "--shard")
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream(), 1 << 16));
+            responses = new DataInputStream(new BufferedInputStream(process.getInputStream(), 1 << 16));
+        }
+
+        @Override
+        public synchronized int add(List<String[]> rows) throws IOException {
+            requests.writeByte(ADD);
+            requests.writeInt(rows.size());
+            for (String[] row : rows) {
+                for (String field : row) {
+                    requests.writeUTF(field);
+                }
+            }
+            return send().readInt();
+        }
+
+        @Override
+        public synchronized List<Player> all() throws IOException {
+            requests.writeByte(ALL);
+            return readPlayers(send());
+        }
+
+        @Override
+        public synchronized List<Player> search(String name) throws IOException {
+            requests.writeByte(SEARCH);
+            requests.writeUTF(name);
+            return readPlayers(send());
+        }
+
+        @Override
+        public synchronized List<Player> searchFuzzy(String name, int maxDistance) throws IOException {
+            requests.writeByte(SEARCH_FUZZY);
+            requests.writeUTF(name);
+            requests.writeInt(maxDistance);
+            return readPlayers(send());
+        }
+
+        @Override
+        public synchronized List<Player> sorted(int limit) throws IOException {
+            requests.writeByte(SORTED);
+            requests.writeInt(limit);
+            return readPlayers(send());
+        }
+
+        @Override
+        public synchronized int count(Map<PlayerAttribute, String> conditions) throws IOException {
+            requests.writeByte(COUNT);
+            writeConditions(requests, conditions);
+            return send().readInt();
+        }
+
+        @Override
+        public synchronized Map<String, Integer> countBy(PlayerAttribute groupBy, Map<PlayerAttribute, String> conditions)
+                throws IOException {
+            requests.writeByte(COUNT_BY);
+            requests.writeByte(groupBy.ordinal());
+            writeConditions(requests, conditions);
+            DataInputStream in = send();
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (int n = in.readInt(); n > 0; n--) {
+                counts.put(in.readUTF(), in.readInt());
+            }
+            return counts;
+        }
+
+        @Override
+        public synchronized int size() throws IOException {
+            requests.writeByte(SIZE);
+            return send().readInt();
+        }
+
+        private DataInputStream send() throws IOException {
+            requests.flush();
+            return responses;
+        }
+
+        private List<Player> readPlayers(DataInputStream in) throws IOException {
+            int count = in.readInt();
+            PlayerTable table = new PlayerTable(Math.max(1, count));
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                String position = in.readUTF();
+                Coach coach = registry.coach(in.readUTF(), in.readUTF());
+                table.append(name, position, coach, registry.team(in.readUTF()));
+            }
+            return table;
+        }
+
+        // Closing the child's input ends it
+        @Override
+        public synchronized void close() throws IOException {
+            try {
+                requests.close();
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    // Answer requests from the parent until it closes the input; runs in the child JVM
+    static void serve(InputStream input, OutputStream output) throws IOException {
+        LocalShard shard = new LocalShard(new EntityRegistry());
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input, 1 << 16));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+        while (true) {
+            int request;
+            try {
+                request = in.readUnsignedByte();
+            } catch (EOFException e) {
+                return;
+            }
+            switch (request) {
+                case ADD:
+                    List<String[]> rows = new ArrayList<>();
+                    for (int n = in.readInt(); n > 0; n--) {
+                        rows.add(new String[] {in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF()});
+                    }
+                    out.writeInt(shard.add(rows));
+                    break;
+                case ALL:
+                    writePlayers(out, shard.all());
+                    break;
+                case SEARCH:
+                    writePlayers(out, shard.search(in.readUTF()));
+                    break;
+                case SEARCH_FUZZY:
+                    writePlayers(out, shard.searchFuzzy(in.readUTF(), in.readInt()));
+                    break;
+                case SORTED:
+                    writePlayers(out, shard.sorted(in.readInt()));
+                    break;
+                case COUNT:
+                    out.writeInt(shard.count(readConditions(in)));
+                    break;
+                case COUNT_BY:
+                    PlayerAttribute groupBy = PlayerAttribute.values()[in.readUnsignedByte()];
+                    Map<String, Integer> counts = shard.countBy(groupBy, readConditions(in));
+                    out.writeInt(counts.size());
+                    for (Map.Entry<String, Integer> count : counts.entrySet()) {
+                        out.writeUTF(count.getKey());
+                        out.writeInt(count.getValue());
+                    }
+                    break;
+                case SIZE:
+                    out.writeInt(shard.size());
+                    break;
+                default:
+                    throw new IOException("Unknown shard request " + request);
+            }
+            out.flush();
+        }
+    }
+
+    private static void writePlayers(DataOutputStream out, List<Player> players) throws IOException {
+        out.writeInt(players.size());
+        for (Player player : players) {
+            out.writeUTF(player.getName());
+            out.writeUTF(player.getPosition());
+            out.writeUTF(player.getCoach().getName());
+            out.writeUTF(player.getCoach().getType());
+            out.writeUTF(player.getTeam().getName());
+        }
+    }
+
+    private static void writeConditions(DataOutputStream out, Map<PlayerAttribute, String> conditions) throws IOException {
+        out.writeInt(conditions.size());
+        for (Map.Entry<PlayerAttribute, String> condition : conditions.entrySet()) {
+            out.writeByte(condition.getKey().ordinal());
+            out.writeUTF(condition.getValue());
+        }
+    }
+
+    private static Map<PlayerAttribute, String> readConditions(DataInputStream in) throws IOException {
+        Map<PlayerAttribute, String> conditions = new EnumMap<>(PlayerAttribute.class);
+        for (int n = in.readInt(); n > 0; n--) {
+            conditions.put(PlayerAttribute.values()[in.readUnsignedByte()], in.readUTF());
+        }
+        return conditions;
+    }
+
+    // Usage: java RugbyClubGame --sharded <filename> [buckets per team] [--processes]
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--shard")) {
+            // Keep stray output off the channel to the parent
+            PrintStream channel = System.out;
+            System.setOut(System.err);
+            serve(System.in, channel);
+            return;
+        }
+        if (args.length < 2) {
+            System.err.println("Usage: java RugbyClubGame --sharded <filename> [buckets per team] [--processes]");
+            System.exit(1);
+        }
+        int buckets = args.length > 2 && !args[2].startsWith("--") ? Integer.parseInt(args[2]) : 1;
+        boolean processes = Arrays.asList(args).contains("--processes");
+        try (ShardedRoster roster = new ShardedRoster(buckets, processes)) {
+            long start = System.nanoTime();
+            int added = roster.readFile(args[1]);
+            System.out.printf("Loaded %d players into %d shards in %d ms.%n", added, roster.shardCount(),
+                    (System.nanoTime() - start) / 1_000_000);
+            roster.shardSizes().forEach((shard, size) -> System.out.println("  " + shard + ": " + size));
+
+            start = System.nanoTime();
+            List<Player> first = roster.sorted(DISPLAY_LIMIT);
+            System.out.printf("First %d players by name (%d ms):%n", first.size(), (System.nanoTime() - start) / 1_000_000);
+            StringBuilder text = new StringBuilder();
+            new Pager<>(first, Math.max(1, first.size())).render(text, RugbyClubGame.PLAYER_LINE);
+            System.out.print(text);
+        } catch (UncheckedIOException e) {
+            System.err.println("Error reading file: " + e.getCause().getMessage());
+        }
+    }
+}
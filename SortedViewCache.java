@@ -0,0 +1,205 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+
+// Sorted views of Club_Form files kept between reports. A view is keyed on the file's path
+// and sort key and stays valid while the file's size and modification time are unchanged. A
+// file that has only grown is brought up to date by sorting just the appended lines and
+// merging them in. Views are dropped least recently used first once the files they cover
+// add up to more than the byte budget; a file larger than the budget is never cached.
+class SortedViewCache {
+    // Bytes of the old end of a file compared before trusting that the file was only appended to
+    private static final int TAIL_CHECK = 4096;
+
+    private final long budget;
+    private final LongConsumer bytesRead;
+    private final LinkedHashMap<ViewKey, View> views;
+    private long cachedBytes;
+
+    public SortedViewCache(long budget, LongConsumer bytesRead) {
+        this.budget = budget;
+        this.bytesRead = bytesRead;
+        this.views = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    // Records of the file in sort order, or null if the file is too large to cache
+    public ClubRecord[] sorted(String filename, RecordSortKey sortKey) throws IOException {
+        Path path = Paths.get(filename).toAbsolutePath().normalize();
+        long size = Files.size(path);
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        if (size > budget) {
+            return null;
+        }
+        ViewKey key = new ViewKey(path.toString(), sortKey);
+        View cached;
+        synchronized (this) {
+            cached = views.get(key);
+        }
+        if (cached != null && cached.size == size && cached.modified == modified) {
+            return cached.records;
+        }
+        View view = cached != null && cached.size < size && isAppendOf(path, cached)
+                ? append(path, cached, size, modified, sortKey)
+                : load(path, size, modified, sortKey);
+        put(key, view);
+        return view.records;
+    }
+
+    public synchronized void clear() {
+        views.clear();
+        cachedBytes = 0;
+    }
+
+    private synchronized void put(ViewKey key, View view) {
+        View previous = views.put(key, view);
+        cachedBytes += view.size - (previous == null ? 0 : previous.size);
+        Iterator<View> eldest = views.values().iterator();
+        while (cachedBytes > budget && eldest.hasNext()) {
+            View evicted = eldest.next();
+            if (evicted != view) {
+                cachedBytes -= evicted.size;
+                eldest.remove();
+            }
+        }
+    }
+
+    private View load(Path path, long size, long modified, RecordSortKey sortKey) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                lines.add(line.trim());
+            }
+        }
+        bytesRead.accept(size);
+        return new View(size, modified, lines.size(), tailChecksum(path, size), ClubRecord.sort(lines, sortKey, true));
+    }
+
+    // Sort only the lines past the cached end, then merge them with the cached records. They
+    // carry later sequence numbers, so ties come out exactly as a full re-sort would order them.
+    private View append(Path path, View cached, long size, long modified, RecordSortKey sortKey) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.position(cached.size);
+            BufferedReader br = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1));
+            String line;
+            while ((line = br.readLine()) != null) {
+                lines.add(line.trim());
+            }
+        }
+        bytesRead.accept(size - cached.size);
+        ClubRecord[] added = new ClubRecord[lines.size()];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = new ClubRecord(lines.get(i), cached.lines + i, sortKey);
+        }
+        Arrays.sort(added, ClubRecord.ORDER);
+        return new View(size, modified, cached.lines + added.length, tailChecksum(path, size),
+                merge(cached.records, added));
+    }
+
+    // Copy runs of old records between the binary-searched insertion points of the new ones
+    static ClubRecord[] merge(ClubRecord[] old, ClubRecord[] added) {
+        ClubRecord[] merged = new ClubRecord[old.length + added.length];
+        int from = 0;
+        int out = 0;
+        for (ClubRecord record : added) {
+            int at = Arrays.binarySearch(old, from, old.length, record, ClubRecord.ORDER);
+            // Sequence numbers are unique, so the record is never found and at is its insertion point
+            at = -at - 1;
+            System.arraycopy(old, from, merged, out, at - from);
+            out += at - from;
+            from = at;
+            merged[out++] = record;
+        }
+        System.arraycopy(old, from, merged, out, old.length - from);
+        return merged;
+    }
+
+    // The cached end must finish a line and its last bytes must be unchanged
+    private static boolean isAppendOf(Path path, View cached) throws IOException {
+        if (cached.size == 0) {
+            return true;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, cached.size - 1);
+            if (last.get(0) != '\n') {
+                return false;
+            }
+        }
+        return tailChecksum(path, cached.size) == cached.tailChecksum;
+    }
+
+    private static long tailChecksum(Path path, long end) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long start = Math.max(0, end - TAIL_CHECK);
+            ByteBuffer tail = ByteBuffer.allocate((int) (end - start));
+            while (tail.hasRemaining()) {
+                if (channel.read(tail, start + tail.position()) < 0) {
+                    break;
+                }
+            }
+            tail.flip();
+            CRC32 crc = new CRC32();
+            crc.update(tail);
+            return crc.getValue();
+        }
+    }
+
+    private static final class ViewKey {
+        private final String path;
+        private final RecordSortKey sortKey;
+
+        ViewKey(String path, RecordSortKey sortKey) {
+            this.path = path;
+            this.sortKey = sortKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ViewKey)) {
+                return false;
+            }
+            ViewKey other = (ViewKey) o;
+            return path.equals(other.path) && sortKey == other.sortKey;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * path.hashCode() + sortKey.hashCode();
+        }
+    }
+
+    private static final class View {
+        final long size;
+        final long modified;
+        final int lines;
+        final long tailChecksum;
+        final ClubRecord[] records;
+
+        View(long size, long modified, int lines, long tailChecksum, ClubRecord[] records) {
+            this.size = size;
+            this.modified = modified;
+            this.lines = lines;
+            this.tailChecksum = tailChecksum;
+            this.records = records;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Column of strings packed back to back as UTF-8 in one byte array, with one offset per row.
+// One writer at a time may add while readers get rows below a size published by the owner.
+class StringColumn {
+    private volatile byte[] data;
+    private volatile int[] offsets;
+    private int size;
+
+    public StringColumn() {
+        this(16);
+    }
+
+    public StringColumn(int capacity) {
+        data = new byte[Math.max(16, capacity * 8)];
+        offsets = new int[Math.max(1, capacity) + 1];
+    }
+
+    // Append a value and return its row
+    public int add(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int[] currentOffsets = offsets;
+        if (size + 1 == currentOffsets.length) {
+            currentOffsets = Arrays.copyOf(currentOffsets, currentOffsets.length * 2);
+            offsets = currentOffsets;
+        }
+        int start = currentOffsets[size];
+        byte[] currentData = data;
+        if (start + bytes.length > currentData.length) {
+            currentData = Arrays.copyOf(currentData, Math.max(currentData.length * 2, start + bytes.length));
+            data = currentData;
+        }
+        System.arraycopy(bytes, 0, currentData, start, bytes.length);
+        currentOffsets[size + 1] = start + bytes.length;
+        return size++;
+    }
+
+    public String get(int row) {
+        int[] currentOffsets = offsets;
+        int start = currentOffsets[row];
+        return new String(data, start, currentOffsets[row + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    // Drop the rows from newSize on, so the next add reuses their space
+    public void truncate(int newSize) {
+        size = Math.min(newSize, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Bytes used by the packed values, excluding unused capacity
+    public long byteSize() {
+        return offsets[size];
+    }
+}
@@ -0,0 +1,31 @@
+import java.util.Collections;
+import java.util.List;
+
+class Team {
+    private String name;
+    private AppendOnlyList<Player> players;
+
+    public Team(String name) {
+        this.name = name;
+        this.players = new AppendOnlyList<>();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Each team appends under its own lock, so adds to different teams do not contend
+    public void addPlayer(Player player) {
+        players.add(player);
+    }
+
+    // A live, read-only view; reading it never blocks a writer
+    public List<Player> getPlayers() {
+        return Collections.unmodifiableList(players);
+    }
+
+    @Override
+    public String toString() {
+        return name + " Team";
+    }
+}
@@ -0,0 +1,188 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Trigram index over distinct terms for typo-tolerant lookups. Each term is padded with two
+// marks at either end and filed under every three-character window. One edit touches at most
+// three windows, so a term within d edits of the query shares all but 3d of the query's
+// distinct trigrams; only terms that can still reach that count are checked with a bounded
+// edit distance. Terms are added under the index's lock; lookups never lock.
+class TrigramIndex {
+    private static final char START = '\u0001';
+    private static final char END = '\u0002';
+
+    private final AppendOnlyList<String> terms;
+    private final ConcurrentMap<Long, IntPostings> postings;
+    // Per-thread counters of shared trigrams, indexed by term id and reset after each lookup
+    private final ThreadLocal<int[]> counters;
+
+    public TrigramIndex() {
+        terms = new AppendOnlyList<>(1024);
+        postings = new ConcurrentHashMap<>();
+        counters = ThreadLocal.withInitial(() -> new int[1024]);
+    }
+
+    // A term within maxDistance edits of the query, and how many edits away it is
+    static final class Match {
+        final String term;
+        final int distance;
+
+        Match(String term, int distance) {
+            this.term = term;
+            this.distance = distance;
+        }
+
+        static final Comparator<Match> RANK = Comparator.comparingInt((Match m) -> m.distance)
+                .thenComparing(m -> m.term);
+    }
+
+    // Index a term; the caller must not add the same term twice
+    public synchronized void add(String term) {
+        int id = terms.size();
+        // Publish the term before any posting that refers to it
+        terms.add(term);
+        for (long gram : grams(term)) {
+            postings.computeIfAbsent(gram, g -> new IntPostings()).add(id);
+        }
+    }
+
+    public int size() {
+        return terms.size();
+    }
+
+    // Terms within maxDistance edits of the query, closest first, then in term order
+    public List<Match> search(String query, int maxDistance) {
+        int count = terms.size();
+        List<Match> matches = new ArrayList<>();
+        long[] grams = grams(query);
+        // A match misses at most 3 * maxDistance of the query's trigrams, so among the rarest
+        // scanned of them it shares at least scanned - 3 * maxDistance. Scanning only those skips
+        // the long lists of common trigrams, such as the one for a name's first letter.
+        int scanned = Math.min(grams.length, 3 * maxDistance + 2);
+        int required = scanned - 3 * maxDistance;
+        if (required <= 0) {
+            // Too short to rule anything out by trigrams; check every term of a plausible length
+            for (int id = 0; id < count; id++) {
+                check(query, terms.get(id), maxDistance, matches);
+            }
+        } else {
+            for (int id : candidates(grams, scanned, required, count)) {
+                check(query, terms.get(id), maxDistance, matches);
+            }
+        }
+        matches.sort(Match.RANK);
+        return matches;
+    }
+
+    // Ids below count found in at least required of the scanned rarest posting lists
+    private int[] candidates(long[] grams, int scanned, int required, int count) {
+        // Snapshot the sizes, so the order does not shift while sorting
+        long[] bySize = new long[grams.length];
+        IntPostings[] lists = new IntPostings[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            bySize[i] = (long) (lists[i] == null ? 0 : lists[i].size()) << 32 | i;
+        }
+        Arrays.sort(bySize);
+        int[] shared = counters.get();
+        if (shared.length < count) {
+            shared = new int[Math.max(count, shared.length * 2)];
+            counters.set(shared);
+        }
+        int[] touched = new int[64];
+        int touchedCount = 0;
+        for (int l = 0; l < scanned; l++) {
+            IntPostings list = lists[(int) bySize[l]];
+            if (list == null) {
+                continue;
+            }
+            int size = list.size();
+            int[] ids = list.ids();
+            for (int i = 0; i < size; i++) {
+                int id = ids[i];
+                if (id >= count) {
+                    // Ids ascend; the rest belong to terms added after this lookup began
+                    break;
+                }
+                if (shared[id]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = id;
+                }
+            }
+        }
+        int found = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int id = touched[i];
+            if (shared[id] >= required) {
+                touched[found++] = id;
+            }
+            shared[id] = 0;
+        }
+        return Arrays.copyOf(touched, found);
+    }
+
+    private static void check(String query, String term, int maxDistance, List<Match> matches) {
+        if (Math.abs(query.length() - term.length()) > maxDistance) {
+            return;
+        }
+        int distance = distance(query, term, maxDistance);
+        if (distance <= maxDistance) {
+            matches.add(new Match(term, distance));
+        }
+    }
+
+    // Levenshtein distance, or maxDistance + 1 as soon as every cell of a row exceeds the bound
+    static int distance(String a, String b, int maxDistance) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    // Distinct trigrams of the padded term, each packed into a long
+    static long[] grams(String term) {
+        int length = term.length() + 4;
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= length; i++) {
+            grams.add((long) padded(term, i) << 32 | (long) padded(term, i + 1) << 16 | padded(term, i + 2));
+        }
+        long[] result = new long[grams.size()];
+        int n = 0;
+        for (long gram : grams) {
+            result[n++] = gram;
+        }
+        return result;
+    }
+
+    private static char padded(String term, int index) {
+        if (index < 2) {
+            return START;
+        }
+        return index - 2 < term.length() ? term.charAt(index - 2) : END;
+    }
+}
@@ -0,0 +1,80 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+// Duplicate filtering checked against a HashSet of the normalized rows
+class DeduplicatorTest {
+    private static final String[] NAMES = {"Anna Smith", "  anna   SMITH ", "Ben Jones", "Zoë Brown", "ZOË BROWN", "Jo\tBloggs"};
+
+    private static String key(String name, String identity) {
+        return Deduplicator.normalize(name) + "\n" + Deduplicator.normalize(identity);
+    }
+
+    @Test
+    void addAndRemoveMatchSetModel() {
+        Deduplicator deduplicator = new Deduplicator(false);
+        Set<String> model = new HashSet<>();
+        List<String[]> added = new ArrayList<>();
+        Random random = new Random(1);
+        for (int step = 0; step < 200_000; step++) {
+            // Enough distinct rows to grow the table several times and leave long probe runs
+            String name = NAMES[random.nextInt(NAMES.length)];
+            String identity = "player" + random.nextInt(4000) + "@club.example";
+            if (!added.isEmpty() && random.nextInt(3) == 0) {
+                String[] row = added.remove(random.nextInt(added.size()));
+                deduplicator.remove(row[0], row[1]);
+                model.remove(key(row[0], row[1]));
+            } else {
+                boolean distinct = model.add(key(name, identity));
+                assertEquals(distinct, deduplicator.add(name, identity), name + " / " + identity);
+                if (distinct) {
+                    added.add(new String[] {name, identity});
+                }
+            }
+        }
+        // Every remaining row is still found, and every removed one can be added again
+        for (String[] row : added) {
+            assertFalse(deduplicator.add(row[0], row[1]));
+        }
+    }
+
+    @Test
+    void removingUnknownRowKeepsOthers() {
+        Deduplicator deduplicator = new Deduplicator(false);
+        assertTrue(deduplicator.add("Anna Smith", "anna@club.example"));
+        deduplicator.remove("Ben Jones", "ben@club.example");
+        assertFalse(deduplicator.add("ANNA  smith", " anna@club.example"));
+        deduplicator.remove("anna smith", "ANNA@CLUB.EXAMPLE");
+        assertTrue(deduplicator.add("Anna Smith", "anna@club.example"));
+    }
+
+    @Test
+    void summaryCoversRowsSinceLastSummary() {
+        Deduplicator deduplicator = new Deduplicator(true);
+        deduplicator.add("Anna Smith", "anna@club.example");
+        deduplicator.add("Anna Smith", "anna@club.example");
+        deduplicator.add("Anna Smyth", "anna@club.example");
+        String summary = deduplicator.summary();
+        assertTrue(summary.contains("Skipped 1 duplicate rows."), summary);
+        assertTrue(summary.contains("Found 1 possible near-duplicates:"), summary);
+        assertEquals("", deduplicator.summary());
+    }
+
+    @Test
+    void withinOneEdit() {
+        assertTrue(Deduplicator.withinOneEdit("smith", "smith"));
+        assertTrue(Deduplicator.withinOneEdit("smith", "smyth"));
+        assertTrue(Deduplicator.withinOneEdit("smith", "smit"));
+        assertTrue(Deduplicator.withinOneEdit("mith", "smith"));
+        assertFalse(Deduplicator.withinOneEdit("smith", "smythe"));
+        assertFalse(Deduplicator.withinOneEdit("smith", "mitt"));
+    }
+}
@@ -0,0 +1,123 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+// External sort output checked against a stable Collections.sort of the same lines
+class ExternalSorterTest {
+    private static final String[] FIRST = {"anna", "Anna", "BEN", "ben", "Chloe", "dylan", "Émile", "émile", "Zoë"};
+    private static final String[] LAST = {"smith", "Smith", "JONES", "o'neil", "Ölund", "brown", "Brown"};
+    // Small enough that a few thousand lines make more runs than one merge takes
+    private static final long BUDGET = 2048;
+
+    @TempDir
+    Path directory;
+
+    private Path input(int count, long seed) throws IOException {
+        Random random = new Random(seed);
+        List<String> lines = new ArrayList<>();
+        lines.add("id,first_name,last_name,email,gender");
+        for (int i = 0; i < count; i++) {
+            String first = FIRST[random.nextInt(FIRST.length)];
+            String last = LAST[random.nextInt(LAST.length)];
+            String id = random.nextInt(20) == 0 ? "n/a" : Integer.toString(random.nextInt(count / 2));
+            String email = random.nextBoolean() ? first + "." + last + "@club.example" : "";
+            lines.add((random.nextInt(10) == 0 ? "  " : "") + id + "," + first + "," + last + "," + email + ",Male");
+        }
+        lines.add("short line");
+        Path file = directory.resolve("club-" + seed + ".csv");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String field(String line, int index) {
+        String[] fields = line.split(",", -1);
+        return index < fields.length ? fields[index] : "";
+    }
+
+    private static long id(String line) {
+        try {
+            return Long.parseLong(field(line, 0).trim());
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static Comparator<String> order(RecordSortKey key) {
+        switch (key) {
+            case ID:
+                return Comparator.comparingLong(ExternalSorterTest::id);
+            case LAST_NAME:
+                return Comparator.comparing(line -> field(line, 2) + " " + field(line, 1), String::compareToIgnoreCase);
+            case EMAIL:
+                return Comparator.comparing(line -> field(line, 3), String::compareToIgnoreCase);
+            default:
+                return Comparator.comparing(line -> field(line, 1) + " " + field(line, 2), String::compareToIgnoreCase);
+        }
+    }
+
+    private static List<String> expected(Path input, RecordSortKey key) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(input, StandardCharsets.UTF_8)) {
+            lines.add(line.trim());
+        }
+        Collections.sort(lines, order(key));
+        return lines;
+    }
+
+    @ParameterizedTest
+    @EnumSource(RecordSortKey.class)
+    void matchesStableSortAcrossManyRuns(RecordSortKey key) throws IOException {
+        Path input = input(3000, key.ordinal());
+        List<String> expected = expected(input, key);
+        for (boolean parallel : new boolean[] {false, true}) {
+            Path output = directory.resolve("sorted-" + parallel + ".csv");
+            long lines = new ExternalSorter(key, BUDGET, directory, parallel).sort(input.toString(), output.toString());
+            assertEquals(expected.size(), lines);
+            assertEquals(expected, Files.readAllLines(output, StandardCharsets.UTF_8), key + ", parallel " + parallel);
+        }
+    }
+
+    @Test
+    void matchesInMemorySortWithinBudget() throws IOException {
+        Path input = input(500, 7);
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(input, StandardCharsets.UTF_8)) {
+            lines.add(line.trim());
+        }
+        List<String> expected = new ArrayList<>();
+        for (ClubRecord record : ClubRecord.sort(lines, RecordSortKey.FULL_NAME, false)) {
+            expected.add(record.getLine());
+        }
+        Path output = directory.resolve("sorted.csv");
+        new ExternalSorter(RecordSortKey.FULL_NAME, ExternalSorter.DEFAULT_BUDGET, directory, false)
+                .sort(input.toString(), output.toString());
+        assertEquals(expected, Files.readAllLines(output, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sortsEmptyFileAndRemovesRuns() throws IOException {
+        Path input = directory.resolve("empty.csv");
+        Files.createFile(input);
+        Path output = directory.resolve("sorted.csv");
+        assertEquals(0, new ExternalSorter(RecordSortKey.ID, BUDGET, directory, false).sort(input.toString(), output.toString()));
+        assertEquals(0, Files.size(output));
+        try (Stream<Path> entries = Files.list(directory)) {
+            assertFalse(entries.anyMatch(entry -> entry.getFileName().toString().startsWith("club-sort")));
+        }
+    }
+}
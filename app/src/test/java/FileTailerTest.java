@@ -0,0 +1,182 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// After every edit, append, truncate or replacement, the lines handed over match the file
+class FileTailerTest {
+    @TempDir
+    Path directory;
+
+    private Path file;
+    // Modification times are set explicitly, so changes within the clock's granularity are seen
+    private long modified = 1_000_000_000_000L;
+    private final Model model = new Model();
+
+    // The lines handed over so far, each with the offset just past its line break
+    private final class Model implements FileTailer.Listener {
+        final List<String> lines = new ArrayList<>();
+        final List<Long> ends = new ArrayList<>();
+
+        long end() {
+            return ends.isEmpty() ? 0 : ends.get(ends.size() - 1);
+        }
+
+        @Override
+        public long rewind(long offset) {
+            while (end() > offset) {
+                lines.remove(lines.size() - 1);
+                ends.remove(ends.size() - 1);
+            }
+            return end();
+        }
+
+        @Override
+        public void read(long start, long end) throws IOException {
+            assertEquals(end(), start, "read must continue where the lines handed over end");
+            byte[] bytes = Files.readAllBytes(file);
+            int from = (int) start;
+            for (int i = from; i < end; i++) {
+                if (bytes[i] == '\n') {
+                    lines.add(new String(bytes, from, i - from, StandardCharsets.UTF_8));
+                    ends.add((long) i + 1);
+                    from = i + 1;
+                }
+            }
+            assertEquals(end, from, "read must end on a line break");
+        }
+    }
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = directory.resolve("Club_Form.csv");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 30_000; i++) {
+            text.append(i).append(",First").append(i).append(",Last,first").append(i).append("@club.example,Male\n");
+        }
+        write(text.toString());
+    }
+
+    private void write(String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        touch();
+    }
+
+    private void touch() throws IOException {
+        modified += 2000;
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+    }
+
+    // The complete lines of the file
+    private List<String> fileLines() throws IOException {
+        String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        int end = text.lastIndexOf('\n');
+        return end < 0 ? new ArrayList<>() : Arrays.asList(text.substring(0, end).split("\n", -1));
+    }
+
+    private void assertInSync(FileTailer tailer, String step) throws IOException {
+        tailer.update(model);
+        assertEquals(fileLines(), model.lines, step);
+    }
+
+    @Test
+    void followsRandomEditsAppendsTruncatesAndReplacements() throws IOException {
+        Random random = new Random(1);
+        try (FileTailer tailer = new FileTailer(file.toString())) {
+            assertInSync(tailer, "initial read");
+            for (int step = 0; step < 300; step++) {
+                long size = Files.size(file);
+                byte[] bytes = Files.readAllBytes(file);
+                boolean endsWithLine = size > 0 && bytes[(int) size - 1] == '\n';
+                int operation = random.nextInt(5);
+                String name;
+                if (operation == 0 && endsWithLine) {
+                    // Overwrite a few bytes in place, anywhere in the file, sometimes with a line break
+                    name = "edit";
+                    try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+                        out.seek(random.nextInt((int) size));
+                        for (int i = random.nextInt(8) + 1; i > 0 && out.getFilePointer() < size; i--) {
+                            out.write(random.nextInt(10) == 0 ? '\n' : 'a' + random.nextInt(26));
+                        }
+                    }
+                    touch();
+                } else if (operation == 1) {
+                    // Append whole lines, sometimes ending in a line not yet finished
+                    name = "append";
+                    StringBuilder text = new StringBuilder();
+                    for (int i = random.nextInt(2000); i >= 0; i--) {
+                        text.append("new").append(step).append(',').append(i).append('\n');
+                    }
+                    if (random.nextBoolean()) {
+                        text.append("partial").append(step);
+                    }
+                    Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+                    touch();
+                } else if (operation == 2 && size > 0) {
+                    name = "truncate";
+                    try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+                        out.setLength(random.nextInt((int) size));
+                    }
+                    touch();
+                } else if (operation == 3) {
+                    // Save a new file in its place, as editors do, with one line changed
+                    name = "replace";
+                    String text = new String(bytes, StandardCharsets.UTF_8);
+                    int at = text.indexOf('\n', random.nextInt(text.length() + 1));
+                    text = at < 0 ? text + "replaced\n" : text.substring(0, at) + "-replaced" + text.substring(at);
+                    Path saved = directory.resolve("Club_Form.csv.tmp");
+                    Files.write(saved, text.getBytes(StandardCharsets.UTF_8));
+                    Files.setLastModifiedTime(saved, Files.getLastModifiedTime(file));
+                    Files.move(saved, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } else {
+                    name = "touch";
+                    List<String> before = new ArrayList<>(model.lines);
+                    touch();
+                    tailer.update(model);
+                    assertEquals(before, model.lines, "touch must not change the lines");
+                }
+                assertInSync(tailer, "step " + step + ": " + name);
+            }
+        }
+    }
+
+    @Test
+    void unchangedFileIsNotReadAgain() throws IOException {
+        try (FileTailer tailer = new FileTailer(file.toString())) {
+            assertTrue(tailer.update(model));
+            assertFalse(tailer.update(model));
+            touch();
+            assertFalse(tailer.update(model));
+            assertEquals(fileLines(), model.lines);
+        }
+    }
+
+    @Test
+    void lineWaitsForItsBreak() throws IOException {
+        write("1,Anna,Smith,anna@club.example,Female\n2,Ben");
+        try (FileTailer tailer = new FileTailer(file.toString())) {
+            tailer.update(model);
+            assertEquals(Arrays.asList("1,Anna,Smith,anna@club.example,Female"), model.lines);
+            Files.write(file, ",Jones,ben@club.example,Male\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            touch();
+            assertTrue(tailer.update(model));
+            assertEquals(Arrays.asList("1,Anna,Smith,anna@club.example,Female", "2,Ben,Jones,ben@club.example,Male"), model.lines);
+        }
+    }
+}
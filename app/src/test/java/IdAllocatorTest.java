@@ -0,0 +1,69 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+// Ids handed out never collide with ids still in use
+class IdAllocatorTest {
+    @Test
+    void claimsMatchSetModel() {
+        IdAllocator allocator = new IdAllocator();
+        Set<Integer> live = new HashSet<>();
+        int highest = 0;
+        Random random = new Random(1);
+        for (int step = 0; step < 100_000; step++) {
+            int choice = random.nextInt(10);
+            if (choice < 2 && !live.isEmpty()) {
+                int id = live.iterator().next();
+                allocator.release(id);
+                live.remove(id);
+                continue;
+            }
+            int id;
+            if (choice < 8) {
+                int requested = random.nextInt(20) == 0 ? IdAllocator.MAX_CLAIMED_ID + 1 + random.nextInt(1000) : random.nextInt(5000) - 10;
+                id = allocator.claim(requested);
+                if (requested > 0 && requested <= IdAllocator.MAX_CLAIMED_ID && !live.contains(requested)) {
+                    assertEquals(requested, id);
+                } else {
+                    assertEquals(highest + 1, id);
+                }
+            } else {
+                id = allocator.next();
+                assertEquals(highest + 1, id);
+            }
+            assertTrue(live.add(id), "id " + id + " handed out twice");
+            highest = Math.max(highest, id);
+        }
+    }
+
+    @Test
+    void releasedIdCanBeClaimedBackButIsNotReissued() {
+        IdAllocator allocator = new IdAllocator();
+        assertEquals(1, allocator.reserve(3));
+        allocator.release(2);
+        assertEquals(4, allocator.next());
+        assertEquals(2, allocator.claim(2));
+        assertEquals(5, allocator.claim(2));
+    }
+
+    @Test
+    void idAboveCeilingIsReplaced() {
+        IdAllocator allocator = new IdAllocator();
+        assertEquals(1, allocator.claim(Integer.MAX_VALUE));
+        assertEquals(IdAllocator.MAX_CLAIMED_ID, allocator.claim(IdAllocator.MAX_CLAIMED_ID));
+        assertEquals(IdAllocator.MAX_CLAIMED_ID + 1, allocator.claim(IdAllocator.MAX_CLAIMED_ID + 5));
+    }
+
+    @Test
+    void reserveBeyondLastIdFails() {
+        IdAllocator allocator = new IdAllocator();
+        allocator.next();
+        assertThrows(IllegalStateException.class, () -> allocator.reserve(Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,123 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// PersonTable orders checked against a stable Collections.sort on the original values
+class PersonTableTest {
+    private static final String[] PREFIXES = {"", "Al", "al", "ALEXANDROVNA", "Émi", "éMI", "Zo"};
+    private static final char[] CHARS = {'a', 'A', 'b', 'z', 'é', 'É', 'ß', 'ÿ', 'Ÿ', ' ', '\0'};
+    private static final PersonSortKey[][] ORDERS = {
+        {PersonSortKey.FIRST_NAME},
+        {PersonSortKey.LAST_NAME},
+        {PersonSortKey.ID},
+        {PersonSortKey.LAST_NAME, PersonSortKey.FIRST_NAME},
+        {PersonSortKey.FIRST_NAME, PersonSortKey.ID},
+        {PersonSortKey.ID, PersonSortKey.LAST_NAME, PersonSortKey.FIRST_NAME},
+    };
+
+    private final List<String[]> rows = new ArrayList<>();
+    private final List<Integer> ids = new ArrayList<>();
+
+    // Names share long prefixes, differ in case and sometimes only in trailing NUL chars
+    private static String name(Random random) {
+        StringBuilder name = new StringBuilder(PREFIXES[random.nextInt(PREFIXES.length)]);
+        for (int i = random.nextInt(6); i > 0; i--) {
+            name.append(CHARS[random.nextInt(CHARS.length)]);
+        }
+        return name.toString();
+    }
+
+    private void append(PersonTable table, Random random, int count) {
+        for (int i = 0; i < count; i++) {
+            int id = random.nextInt(200) - 100;
+            String first = name(random);
+            String last = name(random);
+            table.append(id, first, last, first + "@club.example", "Female");
+            rows.add(new String[] {first, last});
+            ids.add(id);
+        }
+    }
+
+    private Comparator<Integer> comparator(PersonSortKey[] keys) {
+        Comparator<Integer> comparator = (a, b) -> 0;
+        for (PersonSortKey key : keys) {
+            switch (key) {
+                case FIRST_NAME:
+                    comparator = comparator.thenComparing(row -> rows.get(row)[0], String::compareToIgnoreCase);
+                    break;
+                case LAST_NAME:
+                    comparator = comparator.thenComparing(row -> rows.get(row)[1], String::compareToIgnoreCase);
+                    break;
+                default:
+                    comparator = comparator.thenComparing(ids::get);
+                    break;
+            }
+        }
+        return comparator;
+    }
+
+    // Row numbers in key order; Collections.sort is stable, so ties stay in row order
+    private int[] expected(int size, PersonSortKey[] keys) {
+        List<Integer> order = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            order.add(row);
+        }
+        Collections.sort(order, comparator(keys));
+        return order.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] viewRows(List<Person> view) {
+        return view.stream().mapToInt(Person::getRow).toArray();
+    }
+
+    @Test
+    void orderByMatchesStableSort() {
+        PersonTable table = new PersonTable();
+        append(table, new Random(1), 5000);
+        for (PersonSortKey[] keys : ORDERS) {
+            int[] expected = expected(table.size(), keys);
+            assertArrayEquals(expected, table.orderBy(false, keys));
+            assertArrayEquals(expected, table.orderBy(true, keys));
+            assertArrayEquals(expected, viewRows(table.view(table.orderBy(false, keys))));
+        }
+    }
+
+    @Test
+    void orderByHandlesSmallTables() {
+        for (int size = 0; size < 40; size++) {
+            rows.clear();
+            ids.clear();
+            PersonTable table = new PersonTable(1);
+            append(table, new Random(size), size);
+            for (PersonSortKey[] keys : ORDERS) {
+                assertArrayEquals(expected(size, keys), table.orderBy(size % 2 == 0, keys));
+            }
+        }
+    }
+
+    @Test
+    void sortByFirstNameMergesRowsAppendedSinceLastSort() {
+        PersonTable table = new PersonTable();
+        Random random = new Random(2);
+        PersonSortKey[] firstName = {PersonSortKey.FIRST_NAME};
+        for (int batch : new int[] {0, 1, 300, 7, 2000, 1}) {
+            append(table, random, batch);
+            table.sortByFirstName();
+            assertArrayEquals(expected(table.size(), firstName), viewRows(table));
+        }
+        table.truncate(1000);
+        rows.subList(1000, rows.size()).clear();
+        ids.subList(1000, ids.size()).clear();
+        assertEquals(1000, table.size());
+        append(table, random, 50);
+        table.sortByFirstName();
+        assertArrayEquals(expected(table.size(), firstName), viewRows(table));
+    }
+}
@@ -0,0 +1,110 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Replay of the player journal after clean shutdowns and crashes
+class PlayerJournalTest {
+    private static final long BASE = 42L;
+
+    @TempDir
+    Path directory;
+
+    private static Player player(int i) {
+        return new Player("Player " + i, i % 2 == 0 ? "Forward" : "Back", new Coach("Coach", "Head Coach"), new Team("Team " + i % 3));
+    }
+
+    private static List<String> replay(PlayerJournal journal) throws IOException {
+        List<String> replayed = new ArrayList<>();
+        journal.replay((name, position, coachName, coachType, teamName) ->
+                replayed.add(name + "," + position + "," + coachName + "," + coachType + "," + teamName));
+        return replayed;
+    }
+
+    private static List<String> expected(int count) {
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Player player = player(i);
+            rows.add(player.getName() + "," + player.getPosition() + ",Coach,Head Coach," + player.getTeam().getName());
+        }
+        return rows;
+    }
+
+    private Path write(int count) throws IOException {
+        Path file = directory.resolve("roster.csv.journal");
+        try (PlayerJournal journal = new PlayerJournal(file.toString(), BASE)) {
+            for (int i = 0; i < count; i++) {
+                journal.append(player(i));
+            }
+        }
+        return file;
+    }
+
+    @Test
+    void replaysEveryRecordAfterCleanClose() throws IOException {
+        Path file = write(PlayerJournal.BATCH_SIZE + 10);
+        try (PlayerJournal journal = new PlayerJournal(file.toString(), BASE)) {
+            assertEquals(expected(PlayerJournal.BATCH_SIZE + 10), replay(journal));
+        }
+    }
+
+    @Test
+    void dropsTornFinalRecordAndKeepsAppending() throws IOException {
+        Path file = write(5);
+        long intact = Files.size(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(intact - 3);
+        }
+        try (PlayerJournal journal = new PlayerJournal(file.toString(), BASE)) {
+            assertEquals(expected(4), replay(journal));
+            assertEquals(4, journal.size());
+            journal.append(player(4));
+        }
+        try (PlayerJournal journal = new PlayerJournal(file.toString(), BASE)) {
+            assertEquals(expected(5), replay(journal));
+        }
+        assertEquals(intact, Files.size(file));
+    }
+
+    @Test
+    void dropsFinalRecordWithBadChecksum() throws IOException {
+        Path file = write(3);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(last ^ 0xFF);
+        }
+        try (PlayerJournal journal = new PlayerJournal(file.toString(), BASE)) {
+            assertEquals(expected(2), replay(journal));
+        }
+    }
+
+    @Test
+    void discardsJournalWrittenAgainstAnotherBase() throws IOException {
+        Path file = write(3);
+        try (PlayerJournal journal = new PlayerJournal(file.toString(), BASE + 1)) {
+            assertEquals(0, replay(journal).size());
+        }
+    }
+
+    @Test
+    void fingerprintChangesWithContentOfSameLength() throws IOException {
+        Path base = directory.resolve("roster.csv");
+        Files.write(base, "A,Forward,Coach,Head Coach,A Squad\n".getBytes());
+        long before = PlayerJournal.fingerprint(base.toString());
+        FileTime modified = Files.getLastModifiedTime(base);
+        Files.write(base, "B,Forward,Coach,Head Coach,A Squad\n".getBytes());
+        Files.setLastModifiedTime(base, modified);
+        assertNotEquals(before, PlayerJournal.fingerprint(base.toString()));
+    }
+}
@@ -0,0 +1,125 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// People read back from an archive match the people written, field for field
+class RosterArchiveTest {
+    private static final String[] NAMES = {"Anna", "Ben", "", "Zoë", "Ólafur", "李", "Jo 😀", "O'Neil"};
+    private static final String[] EMAILS = {"anna@club.example", "no-at-sign", "", "a@b@c.example", "@club.example", "zoë@例え.jp", "trailing@"};
+    private static final String[] GENDERS = {"Male", "Female", "Non-binary", ""};
+
+    @TempDir
+    Path directory;
+
+    private static List<String> people(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> people = new ArrayList<>();
+        int id = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            // Mostly consecutive ids, with gaps, repeats and steps back mixed in
+            switch (random.nextInt(8)) {
+                case 0:
+                    id = random.nextInt();
+                    break;
+                case 1:
+                    break;
+                case 2:
+                    id -= random.nextInt(1000);
+                    break;
+                default:
+                    id++;
+            }
+            people.add(row(id, NAMES[random.nextInt(NAMES.length)], NAMES[random.nextInt(NAMES.length)] + i % 50,
+                    EMAILS[random.nextInt(EMAILS.length)], GENDERS[random.nextInt(GENDERS.length)]));
+        }
+        people.add(row(Integer.MAX_VALUE, "Last", "Row", "last@club.example", "Male"));
+        return people;
+    }
+
+    private static String row(int id, String firstName, String lastName, String email, String gender) {
+        return id + "|" + firstName + "|" + lastName + "|" + email + "|" + gender;
+    }
+
+    private static List<String> read(RosterArchive.Reader reader) throws IOException {
+        List<String> people = new ArrayList<>();
+        reader.forEach((id, firstName, lastName, email, gender) -> people.add(row(id, firstName, lastName, email, gender)));
+        return people;
+    }
+
+    private Path write(List<String> people) throws IOException {
+        Path archive = directory.resolve("people.rca");
+        try (RosterArchive.Writer writer = new RosterArchive.Writer(archive.toString())) {
+            for (String person : people) {
+                String[] fields = person.split("\\|", -1);
+                writer.person(Integer.parseInt(fields[0]), fields[1], fields[2], fields[3], fields[4]);
+            }
+            assertEquals(people.size(), writer.rows());
+        }
+        return archive;
+    }
+
+    @Test
+    void roundTripsSeveralBlocks() throws IOException {
+        List<String> people = people(2 * RosterArchive.BLOCK_ROWS + 123, 1);
+        Path archive = write(people);
+        assertTrue(RosterArchive.isArchive(archive.toString()));
+        try (RosterArchive.Reader reader = new RosterArchive.Reader(archive.toString())) {
+            assertEquals(3, reader.blocks());
+            assertEquals(people.size(), reader.rows());
+            assertEquals(people, read(reader));
+            // A block read on its own decodes the same rows
+            List<String> last = new ArrayList<>();
+            reader.readBlock(2, (id, firstName, lastName, email, gender) -> last.add(row(id, firstName, lastName, email, gender)));
+            assertEquals(people.subList(2 * RosterArchive.BLOCK_ROWS, people.size()), last);
+        }
+    }
+
+    @Test
+    void roundTripsEmptyArchive() throws IOException {
+        Path archive = write(new ArrayList<>());
+        try (RosterArchive.Reader reader = new RosterArchive.Reader(archive.toString())) {
+            assertEquals(0, reader.rows());
+            assertEquals(new ArrayList<String>(), read(reader));
+        }
+    }
+
+    @Test
+    void convertSkipsHeaderAndMalformedRows() throws IOException {
+        Path csv = directory.resolve("Club_Form.csv");
+        Files.write(csv, Arrays.asList(
+                "id,first_name,last_name,email,gender",
+                "1,Anna,Smith,anna@club.example,Female",
+                "2,Ben,Jones",
+                "3,Zoë,Ólafsdóttir,zoë@例え.jp,Female",
+                "4,Too,Many,fields@club.example,Male,extra",
+                "7,Jo,Bloggs,no-at-sign,Male"), StandardCharsets.UTF_8);
+        Path archive = directory.resolve("Club_Form.rca");
+        assertFalse(RosterArchive.isArchive(csv.toString()));
+        assertEquals(3, RosterArchive.convert(csv.toString(), archive.toString()));
+        try (RosterArchive.Reader reader = new RosterArchive.Reader(archive.toString())) {
+            assertEquals(Arrays.asList(
+                    row(1, "Anna", "Smith", "anna@club.example", "Female"),
+                    row(3, "Zoë", "Ólafsdóttir", "zoë@例え.jp", "Female"),
+                    row(7, "Jo", "Bloggs", "no-at-sign", "Male")), read(reader));
+        }
+    }
+
+    @Test
+    void shortFileIsNotAnArchive() throws IOException {
+        Path file = directory.resolve("short");
+        Files.write(file, new byte[] {'R', 'C'});
+        assertFalse(RosterArchive.isArchive(file.toString()));
+    }
+}
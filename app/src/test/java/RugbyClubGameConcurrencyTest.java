@@ -0,0 +1,146 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+// Lock-free readers racing concurrent writers only ever see whole groups of committed players
+class RugbyClubGameConcurrencyTest {
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int GROUPS = 500;
+    private static final int GROUP_SIZE = 5;
+    private static final int TEAMS = 4;
+
+    private static String name(int writer, int group, int member) {
+        return "W" + writer + " G" + group + " M" + member;
+    }
+
+    private static List<String[]> group(int writer, int group) {
+        List<String[]> rows = new ArrayList<>();
+        for (int member = 0; member < GROUP_SIZE; member++) {
+            rows.add(new String[] {name(writer, group, member), "Forward", "Coach", "Head Coach", "Team " + member % TEAMS});
+        }
+        return rows;
+    }
+
+    // Rows strictly increasing, so no player is listed twice, and every one committed
+    private static void assertCommittedRoster(List<Player> players, int committed) {
+        int previous = -1;
+        for (Player player : players) {
+            assertTrue(player.getRow() > previous, "rows out of order or repeated");
+            previous = player.getRow();
+        }
+        assertTrue(previous < committed, "player visible past the committed count");
+    }
+
+    private static void read(RugbyClubGame game, List<Team> teams) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int writer = random.nextInt(WRITERS);
+        int group = random.nextInt(GROUPS);
+        // A group becomes visible all at once, and the committed count never goes back
+        if (!game.search(name(writer, group, GROUP_SIZE - 1)).isEmpty()) {
+            for (int member = 0; member < GROUP_SIZE; member++) {
+                assertEquals(1, game.search(name(writer, group, member)).size(), "group seen in part");
+            }
+        }
+        Team team = teams.get(random.nextInt(TEAMS));
+        List<Player> teamPlayers = game.getTeamPlayers(team);
+        Map<PlayerAttribute, String> condition = new EnumMap<>(PlayerAttribute.class);
+        condition.put(PlayerAttribute.TEAM, team.getName());
+        int counted = game.countPlayers(condition);
+        List<Player> roster = game.getPlayers();
+        assertCommittedRoster(teamPlayers, roster.size());
+        for (Player player : teamPlayers) {
+            assertEquals(team, player.getTeam());
+        }
+        assertTrue(teamPlayers.size() <= counted, "team view ahead of the attribute index");
+        assertTrue(counted <= roster.size(), "count ahead of the roster");
+        if (!roster.isEmpty()) {
+            Player last = roster.get(roster.size() - 1);
+            assertEquals(roster.size() - 1, last.getRow());
+            assertTrue(last.getName().startsWith("W"));
+        }
+    }
+
+    @Test
+    void readersSeeOnlyWholeCommittedGroups() throws Exception {
+        RugbyClubGame game = new RugbyClubGame();
+        List<Team> teams = new ArrayList<>();
+        for (int t = 0; t < TEAMS; t++) {
+            teams.add(game.findOrCreateTeam("Team " + t));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int group = 0; group < GROUPS; group++) {
+                        assertEquals(GROUP_SIZE, game.addPlayers(group(writer, group)));
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    while (writing.get()) {
+                        read(game, teams);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(1, TimeUnit.MINUTES);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+
+        List<Player> roster = game.getPlayers();
+        assertEquals(WRITERS * GROUPS * GROUP_SIZE, roster.size());
+        assertCommittedRoster(roster, roster.size());
+        Set<String> names = new HashSet<>();
+        for (Player player : roster) {
+            assertTrue(names.add(player.getName()), "player added twice");
+        }
+        int teamTotal = 0;
+        for (Team team : teams) {
+            List<Player> teamPlayers = game.getTeamPlayers(team);
+            assertEquals(new HashSet<>(teamPlayers).size(), teamPlayers.size());
+            teamTotal += teamPlayers.size();
+        }
+        assertEquals(roster.size(), teamTotal);
+        for (int w = 0; w < WRITERS; w++) {
+            for (int group = 0; group < GROUPS; group++) {
+                for (int member = 0; member < GROUP_SIZE; member++) {
+                    assertEquals(1, game.search(name(w, group, member)).size());
+                }
+            }
+        }
+    }
+}
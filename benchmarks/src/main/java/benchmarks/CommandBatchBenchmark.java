@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Batch mode (CommandBatch) on a fresh roster: a command file that generates a large roster
+// under the write lock and then searches it, as java RugbyClubGame --batch would run it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CommandBatchBenchmark {
+    private static final String BATCH = "CommandBatch";
+    private static final MethodHandle RUN = App.method(BATCH, "run", BufferedReader.class);
+
+    @Param({"1000000"})
+    public int rows;
+
+    private String commands;
+
+    @Setup
+    public void setUp() {
+        Fixtures.silence();
+        commands = "generate " + rows + " " + Fixtures.SEED + "\n"
+                + "add Bench Player,Head Coach,A Squad\n"
+                + "search Bench Player\n";
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.restore();
+    }
+
+    @Benchmark
+    public String generateThenSearch() throws Throwable {
+        Writer out = new StringWriter();
+        Object batch = App.create(BATCH, App.create("RugbyClubGame"), out);
+        RUN.invoke(batch, new BufferedReader(new StringReader(commands)));
+        return out.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Stress test for the shared roster: registration threads add players while reporting threads
+// search and walk team lists. Every read checks that it only sees committed players, and the
+// trial fails if the roster, team lists and name index disagree afterwards.
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ConcurrentRosterBenchmark {
+    private static final String GAME = "RugbyClubGame";
+    private static final MethodHandle ADD_PLAYER =
+            App.method(GAME, "addPlayer", String.class, String.class, App.type("Coach"), App.type("Team"));
+    private static final MethodHandle FIND_OR_CREATE_COACH = App.method(GAME, "findOrCreateCoach", String.class, String.class);
+    private static final MethodHandle FIND_OR_CREATE_TEAM = App.method(GAME, "findOrCreateTeam", String.class);
+    private static final MethodHandle SEARCH = App.method(GAME, "search", String.class);
+    private static final MethodHandle GET_PLAYERS = App.method(GAME, "getPlayers");
+    private static final MethodHandle GET_TEAM_PLAYERS = App.method(GAME, "getTeamPlayers", App.type("Team"));
+    private static final MethodHandle PLAYER_NAME = App.method("Player", "getName");
+    private static final MethodHandle PLAYER_TEAM = App.method("Player", "getTeam");
+
+    private static final String[] TEAM_NAMES = {"A Squad", "B Squad", "Under-13 Squad"};
+
+    private Object game;
+    private Object coach;
+    private Object[] teams;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Fixtures.silence();
+        game = App.create(GAME);
+        coach = FIND_OR_CREATE_COACH.invoke(game, "Coach", "Head Coach");
+        teams = new Object[TEAM_NAMES.length];
+        for (int i = 0; i < teams.length; i++) {
+            teams[i] = FIND_OR_CREATE_TEAM.invoke(game, TEAM_NAMES[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void verify() throws Throwable {
+        Fixtures.restore();
+        List<?> players = (List<?>) GET_PLAYERS.invoke(game);
+        int inTeams = 0;
+        for (Object team : teams) {
+            for (Object player : (List<?>) GET_TEAM_PLAYERS.invoke(game, team)) {
+                if (PLAYER_TEAM.invoke(player) != team) {
+                    throw new IllegalStateException("Player listed under the wrong team");
+                }
+                inTeams++;
+            }
+        }
+        int indexed = ((List<?>) SEARCH.invoke(game, "Stress Player")).size();
+        if (inTeams != players.size() || indexed != players.size()) {
+            throw new IllegalStateException("Roster has " + players.size() + " players, teams " + inTeams
+                    + ", name index " + indexed);
+        }
+    }
+
+    @Benchmark
+    @Group("roster")
+    @GroupThreads(4)
+    public Object register() throws Throwable {
+        Object team = teams[(int) (Thread.currentThread().getId() % teams.length)];
+        return ADD_PLAYER.invoke(game, "Stress Player", "Forward", coach, team);
+    }
+
+    @Benchmark
+    @Group("roster")
+    @GroupThreads(4)
+    public int report() throws Throwable {
+        int visible = ((List<?>) GET_PLAYERS.invoke(game)).size();
+        List<?> found = (List<?>) SEARCH.invoke(game, "Stress Player");
+        if (!found.isEmpty() && PLAYER_NAME.invoke(found.get(found.size() - 1)) == null) {
+            throw new IllegalStateException("Saw a player before it was stored");
+        }
+        int inTeams = 0;
+        for (Object team : teams) {
+            inTeams += ((List<?>) GET_TEAM_PLAYERS.invoke(game, team)).size();
+        }
+        // Each view is taken after the last, so none can trail the first one taken
+        if (found.size() < visible || inTeams < visible) {
+            throw new IllegalStateException("Reader saw " + found.size() + " indexed and " + inTeams
+                    + " team players after seeing " + visible);
+        }
+        return inTeams;
+    }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+
+// Generated input files, cached in the temp directory so each size is only written once
+final class Fixtures {
+    static final long SEED = 42L;
+
+    private static final File DIRECTORY = new File(System.getProperty("java.io.tmpdir"), "rugby-club-bench");
+    private static final MethodHandle WRITE_PLAYERS = App.method("RosterGenerator", "writePlayers", String.class, int.class);
+    private static final MethodHandle WRITE_PEOPLE = App.method("RosterGenerator", "writePeople", String.class, int.class);
+    private static final MethodHandle CONVERT_PEOPLE = App.method("RosterArchive", "convert", String.class, String.class);
+
+    private static PrintStream originalOut;
+
+    private Fixtures() {
+    }
+
+    // A PlayerName,Position,CoachName,CoachType,TeamName roster with the given number of rows
+    static String players(int rows) throws Throwable {
+        return generate("players-" + rows + ".csv", WRITE_PLAYERS, rows);
+    }
+
+    // A Club_Form file (id,first_name,last_name,email,gender) with the given number of rows
+    static String people(int rows) throws Throwable {
+        return generate("people-" + rows + ".txt", WRITE_PEOPLE, rows);
+    }
+
+    // The same people as people(rows), exported to a compressed roster archive
+    static synchronized String peopleArchive(int rows) throws Throwable {
+        File file = new File(DIRECTORY, "people-" + rows + ".rca");
+        if (!file.isFile()) {
+            File temp = new File(DIRECTORY, file.getName() + ".tmp");
+            CONVERT_PEOPLE.invoke(people(rows), temp.getPath());
+            if (!temp.renameTo(file)) {
+                throw new IllegalStateException("Could not create " + file);
+            }
+        }
+        return file.getPath();
+    }
+
+    private static synchronized String generate(String name, MethodHandle writer, int rows) throws Throwable {
+        File file = new File(DIRECTORY, name);
+        if (!file.isFile()) {
+            DIRECTORY.mkdirs();
+            File temp = new File(DIRECTORY, name + ".tmp");
+            writer.invoke(App.create("RosterGenerator", SEED, true), temp.getPath(), rows);
+            if (!temp.renameTo(file)) {
+                throw new IllegalStateException("Could not create " + file);
+            }
+        }
+        return file.getPath();
+    }
+
+    // The programs report to System.out; keep console I/O out of the measurements
+    static synchronized void silence() {
+        if (originalOut == null) {
+            originalOut = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+    }
+
+    static synchronized void restore() {
+        if (originalOut != null) {
+            System.setOut(originalOut);
+            originalOut = null;
+        }
+    }
+}
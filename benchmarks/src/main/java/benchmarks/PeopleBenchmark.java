@@ -0,0 +1,111 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Array;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Load, sort and search paths of the Club_Form people program (tempCodeRunnerFile)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PeopleBenchmark {
+    private static final String PEOPLE = "tempCodeRunnerFile";
+    private static final MethodHandle READ_FILE = App.method(PEOPLE, "readFile", String.class);
+    private static final MethodHandle SORT_PEOPLE = App.method(PEOPLE, "sortPeople");
+    private static final MethodHandle SEARCH = App.method(PEOPLE, "search", String.class);
+    private static final MethodHandle SEARCH_FUZZY = App.method(PEOPLE, "searchFuzzy", String.class, int.class);
+    private static final MethodHandle ADD_PERSON =
+            App.method(PEOPLE, "addPerson", int.class, String.class, String.class, String.class, String.class);
+    private static final Class<?> SORT_KEYS = Array.newInstance(App.type("PersonSortKey"), 0).getClass();
+    private static final MethodHandle SORTED_PEOPLE = App.method(PEOPLE, "sortedPeople", SORT_KEYS).asFixedArity();
+
+    private static final String[] NAMES = {"Smith", "Aoife", "O'Brien", "Nobody"};
+    private static final String[] MISSPELLED_NAMES = {"Smiht", "Aoiffe", "OBrien", "Nobodyy"};
+
+    @Param({"1000", "100000", "10000000"})
+    public int rows;
+
+    private String peopleFile;
+    private String peopleArchive;
+    private Object people;
+    private Object lastFirstId;
+    private int next;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Fixtures.silence();
+        peopleFile = Fixtures.people(rows);
+        peopleArchive = Fixtures.peopleArchive(rows);
+        people = App.create(PEOPLE);
+        READ_FILE.invoke(people, peopleFile);
+        lastFirstId = Array.newInstance(SORT_KEYS.getComponentType(), 3);
+        Array.set(lastFirstId, 0, App.constant("PersonSortKey", "LAST_NAME"));
+        Array.set(lastFirstId, 1, App.constant("PersonSortKey", "FIRST_NAME"));
+        Array.set(lastFirstId, 2, App.constant("PersonSortKey", "ID"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.restore();
+    }
+
+    @Benchmark
+    public Object readFile() throws Throwable {
+        Object fresh = App.create(PEOPLE);
+        READ_FILE.invoke(fresh, peopleFile);
+        return fresh;
+    }
+
+    // The same load from the compressed export instead of the CSV file
+    @Benchmark
+    public Object readArchive() throws Throwable {
+        Object fresh = App.create(PEOPLE);
+        READ_FILE.invoke(fresh, peopleArchive);
+        return fresh;
+    }
+
+    @Benchmark
+    public void sortPeople() throws Throwable {
+        SORT_PEOPLE.invoke(people);
+    }
+
+    // A fresh last name, first name, id order beside the list's own order
+    @Benchmark
+    public List<?> sortPeopleByLastFirstId() throws Throwable {
+        return (List<?>) SORTED_PEOPLE.invoke(people, lastFirstId);
+    }
+
+    // One new person merged into the cached first-name order, as after Add New Person
+    @Benchmark
+    public void addAndSortPeople() throws Throwable {
+        ADD_PERSON.invoke(people, rows + ++next, "Bench", "Person", "bench@example.com", "Male");
+        SORT_PEOPLE.invoke(people);
+    }
+
+    @Benchmark
+    public List<?> searchPeople() throws Throwable {
+        return (List<?>) SEARCH.invoke(people, NAMES[next++ & 3]);
+    }
+
+    @Benchmark
+    public List<?> searchPeopleFuzzy() throws Throwable {
+        return (List<?>) SEARCH_FUZZY.invoke(people, MISSPELLED_NAMES[next++ & 3], 2);
+    }
+}
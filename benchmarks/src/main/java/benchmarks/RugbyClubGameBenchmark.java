@@ -0,0 +1,120 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Load, sort, search and add paths of RugbyClubGame
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RugbyClubGameBenchmark {
+    private static final String GAME = "RugbyClubGame";
+    private static final MethodHandle READ_FILE = App.method(GAME, "readFile", String.class);
+    private static final MethodHandle TOP_RECORDS =
+            App.method(GAME, "topRecords", String.class, int.class, App.type("RecordSortKey"));
+    private static final MethodHandle SEARCH = App.method(GAME, "search", String.class);
+    private static final MethodHandle COUNT_PLAYERS = App.method(GAME, "countPlayers", Map.class);
+    private static final MethodHandle FIND_OR_CREATE_COACH = App.method(GAME, "findOrCreateCoach", String.class, String.class);
+    private static final MethodHandle FIND_OR_CREATE_TEAM = App.method(GAME, "findOrCreateTeam", String.class);
+    private static final MethodHandle ADD_PLAYER =
+            App.method(GAME, "addPlayer", String.class, String.class, App.type("Coach"), App.type("Team"));
+
+    private static final String[] NAMES = {"John Smith", "Aoife Murphy", "Liam O'Brien", "Nobody Here"};
+    private static final String[] COACH_TYPES = {"Head Coach", "Assistant Coach", "Scrum Coach"};
+
+    @Param({"1000", "100000", "10000000"})
+    public int rows;
+
+    private String playersFile;
+    private String peopleFile;
+    private Object sortKey;
+    private Object game;
+    private Object coach;
+    private Object team;
+    private Map<?, String> query;
+    private int next;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Fixtures.silence();
+        playersFile = Fixtures.players(rows);
+        peopleFile = Fixtures.people(rows);
+        sortKey = App.constant("RecordSortKey", "FULL_NAME");
+        game = App.create(GAME);
+        READ_FILE.invoke(game, playersFile);
+        coach = FIND_OR_CREATE_COACH.invoke(game, "Coach", "Head Coach");
+        team = FIND_OR_CREATE_TEAM.invoke(game, "A Squad");
+        query = forwardsInUnder13UnderScrumCoach();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<?, String> forwardsInUnder13UnderScrumCoach() {
+        Map conditions = new EnumMap((Class) App.type("PlayerAttribute"));
+        conditions.put(App.constant("PlayerAttribute", "POSITION"), "Forward");
+        conditions.put(App.constant("PlayerAttribute", "COACH_TYPE"), "Scrum Coach");
+        conditions.put(App.constant("PlayerAttribute", "TEAM"), "Under-13 Squad");
+        return conditions;
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.restore();
+    }
+
+    @Benchmark
+    public Object readFile() throws Throwable {
+        Object fresh = App.create(GAME);
+        READ_FILE.invoke(fresh, playersFile);
+        return fresh;
+    }
+
+    @Benchmark
+    public List<?> topRecords() throws Throwable {
+        return (List<?>) TOP_RECORDS.invoke(game, peopleFile, 20, sortKey);
+    }
+
+    // A fresh game has no cached sorted view, so this pays for reading and sorting the file
+    @Benchmark
+    public List<?> topRecordsCold() throws Throwable {
+        return (List<?>) TOP_RECORDS.invoke(App.create(GAME), peopleFile, 20, sortKey);
+    }
+
+    @Benchmark
+    public List<?> searchByName() throws Throwable {
+        return (List<?>) SEARCH.invoke(game, NAMES[next++ & 3]);
+    }
+
+    @Benchmark
+    public int countPlayers() throws Throwable {
+        return (int) COUNT_PLAYERS.invoke(game, query);
+    }
+
+    @Benchmark
+    public Object findOrCreateCoach() throws Throwable {
+        return FIND_OR_CREATE_COACH.invoke(game, "Coach", COACH_TYPES[next++ % COACH_TYPES.length]);
+    }
+
+    @Benchmark
+    public Object addPlayer() throws Throwable {
+        return ADD_PLAYER.invoke(game, "Bench Player", "Forward", coach, team);
+    }
+}
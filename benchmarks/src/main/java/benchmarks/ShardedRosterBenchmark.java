@@ -0,0 +1,111 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Team-partitioned roster (ShardedRoster) against the single roster of RugbyClubGame on the
+// same file: club-wide queries pay a scatter-gather, team queries read one team's shards.
+// Run with -p processes=true to put every shard in a child JVM.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardedRosterBenchmark {
+    private static final String GAME = "RugbyClubGame";
+    private static final String SHARDED = "ShardedRoster";
+    private static final MethodHandle READ_FILE = App.method(GAME, "readFile", String.class);
+    private static final MethodHandle SEARCH = App.method(GAME, "search", String.class);
+    private static final MethodHandle COUNT_PLAYERS = App.method(GAME, "countPlayers", Map.class);
+    private static final MethodHandle SHARDED_READ_FILE = App.method(SHARDED, "readFile", String.class);
+    private static final MethodHandle SHARDED_SEARCH = App.method(SHARDED, "search", String.class);
+    private static final MethodHandle SHARDED_SEARCH_TEAM = App.method(SHARDED, "searchTeam", String.class, String.class);
+    private static final MethodHandle SHARDED_SORTED = App.method(SHARDED, "sorted", int.class);
+    private static final MethodHandle SHARDED_COUNT_PLAYERS = App.method(SHARDED, "countPlayers", Map.class);
+    private static final MethodHandle SHARDED_CLOSE = App.method(SHARDED, "close");
+
+    private static final String[] NAMES = {"John Smith", "Aoife O'Brien", "Lucy Green", "Nobody Here"};
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"1", "4"})
+    public int buckets;
+
+    @Param({"false"})
+    public boolean processes;
+
+    private Object game;
+    private Object sharded;
+    private Map<Object, String> underThirteen;
+    private int next;
+
+    @Setup
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setUp() throws Throwable {
+        Fixtures.silence();
+        String playersFile = Fixtures.players(rows);
+        game = App.create(GAME);
+        READ_FILE.invoke(game, playersFile);
+        sharded = App.create(SHARDED, buckets, processes);
+        SHARDED_READ_FILE.invoke(sharded, playersFile);
+        Class<? extends Enum> attribute = (Class<? extends Enum>) App.type("PlayerAttribute");
+        underThirteen = new EnumMap(attribute);
+        underThirteen.put(App.constant("PlayerAttribute", "TEAM"), "Under-13 Squad");
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        SHARDED_CLOSE.invoke(sharded);
+        Fixtures.restore();
+    }
+
+    @Benchmark
+    public List<?> searchSingle() throws Throwable {
+        return (List<?>) SEARCH.invoke(game, NAMES[next++ & 3]);
+    }
+
+    @Benchmark
+    public List<?> searchSharded() throws Throwable {
+        return (List<?>) SHARDED_SEARCH.invoke(sharded, NAMES[next++ & 3]);
+    }
+
+    // An exact name within one team reads a single shard
+    @Benchmark
+    public List<?> searchTeamSharded() throws Throwable {
+        return (List<?>) SHARDED_SEARCH_TEAM.invoke(sharded, "Under-13 Squad", NAMES[next++ & 3]);
+    }
+
+    @Benchmark
+    public int countTeamSingle() throws Throwable {
+        return (int) COUNT_PLAYERS.invoke(game, underThirteen);
+    }
+
+    @Benchmark
+    public int countTeamSharded() throws Throwable {
+        return (int) SHARDED_COUNT_PLAYERS.invoke(sharded, underThirteen);
+    }
+
+    // The first page of the club by name, merged from every shard's kept order
+    @Benchmark
+    public List<?> sortedFirstPageSharded() throws Throwable {
+        return (List<?>) SHARDED_SORTED.invoke(sharded, 20);
+    }
+}
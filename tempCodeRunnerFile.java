@@ -1,63 +1,512 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Scanner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
 
+// Lightweight view of one row of a PersonTable
 class Person {
-    private int id;
-    private String firstName;
-    private String lastName;
-    private String email;
-    private String gender;
+    private final PersonTable table;
+    private final int row;
 
     public Person(int id, String firstName, String lastName, String email, String gender) {
-        this.id = id;
-        this.firstName = firstName;
-        this.lastName = lastName;
-        this.email = email;
-        this.gender = gender;
+        this(new PersonTable(1), 0);
+        table.append(id, firstName, lastName, email, gender);
+    }
+
+    Person(PersonTable table, int row) {
+        this.table = table;
+        this.row = row;
     }
 
     public int getId() {
-        return id;
+        return table.getId(row);
     }
 
     public String getFirstName() {
-        return firstName;
+        return table.getFirstName(row);
     }
 
     public String getLastName() {
-        return lastName;
+        return table.getLastName(row);
     }
 
     public String getEmail() {
-        return email;
+        return table.getEmail(row);
     }
 
     public String getGender() {
-        return gender;
+        return table.getGender(row);
+    }
+
+    int getRow() {
+        return row;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Person)) {
+            return false;
+        }
+        Person other = (Person) o;
+        return table == other.table && row == other.row;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(table) * 31 + row;
+    }
+
+    // Append the same text as toString without formatting a temporary string
+    void appendTo(StringBuilder out) {
+        out.append("Person [ID: ").append(getId())
+                .append(", First Name: ").append(getFirstName())
+                .append(", Last Name: ").append(getLastName())
+                .append(", Email: ").append(getEmail())
+                .append(", Gender: ").append(getGender()).append(']');
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(96);
+        appendTo(out);
+        return out.toString();
+    }
+}
+
+// Columnar store of people: an int id column, packed name and email columns and a
+// dictionary-encoded gender column. Rows are never moved; sorting permutes a row order.
+class PersonTable extends AbstractList<Person> {
+    private static final PersonSortKey[] FIRST_NAME = {PersonSortKey.FIRST_NAME};
+
+    private int[] ids;
+    private final StringColumn firstNames;
+    private final StringColumn lastNames;
+    private final StringColumn emails;
+    private final DictionaryColumn<String> genders;
+    // Case-folded copies of the names, made once per row so sorts compare them in place
+    private final FoldedKeyColumn firstNameKeys;
+    private final FoldedKeyColumn lastNameKeys;
+    private int[] order;
+    private int size;
+    // Rows by first name, ignoring case, then by row; covers the rows below firstNameRows and
+    // is brought up to date by sortByFirstName
+    private int[] firstNameOrder = new int[0];
+    private int firstNameRows;
+
+    public PersonTable() {
+        this(16);
+    }
+
+    public PersonTable(int capacity) {
+        capacity = Math.max(1, capacity);
+        ids = new int[capacity];
+        firstNames = new StringColumn(capacity);
+        lastNames = new StringColumn(capacity);
+        emails = new StringColumn(capacity);
+        genders = new DictionaryColumn<>(capacity);
+        firstNameKeys = new FoldedKeyColumn(capacity);
+        lastNameKeys = new FoldedKeyColumn(capacity);
+        order = new int[capacity];
+    }
+
+    // Store a new row and return a view of it
+    public Person append(int id, String firstName, String lastName, String email, String gender) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            order = Arrays.copyOf(order, size * 2);
+        }
+        ids[size] = id;
+        firstNames.add(firstName);
+        lastNames.add(lastName);
+        emails.add(email);
+        genders.add(gender);
+        firstNameKeys.add(firstName);
+        lastNameKeys.add(lastName);
+        order[size] = size;
+        return new Person(this, size++);
+    }
+
+    @Override
+    public boolean add(Person person) {
+        append(person.getId(), person.getFirstName(), person.getLastName(), person.getEmail(), person.getGender());
+        return true;
+    }
+
+    @Override
+    public Person get(int index) {
+        Objects.checkIndex(index, size);
+        return new Person(this, order[index]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Reorder the view by permuting row numbers; the columns themselves stay in place
+    @Override
+    public void sort(Comparator<? super Person> comparator) {
+        Person[] views = new Person[size];
+        for (int i = 0; i < size; i++) {
+            views[i] = new Person(this, order[i]);
+        }
+        Arrays.sort(views, comparator);
+        for (int i = 0; i < size; i++) {
+            order[i] = views[i].getRow();
+        }
+        modCount++;
+    }
+
+    // Drop the rows from newSize on, as if they had never been appended. The remaining rows
+    // keep their place in the view and in the cached first-name order.
+    public void truncate(int newSize) {
+        if (newSize >= size) {
+            return;
+        }
+        firstNames.truncate(newSize);
+        lastNames.truncate(newSize);
+        emails.truncate(newSize);
+        genders.truncate(newSize);
+        firstNameKeys.truncate(newSize);
+        lastNameKeys.truncate(newSize);
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (order[i] < newSize) {
+                order[kept++] = order[i];
+            }
+        }
+        if (firstNameRows > newSize) {
+            int[] cached = new int[newSize];
+            int n = 0;
+            for (int row : firstNameOrder) {
+                if (row < newSize) {
+                    cached[n++] = row;
+                }
+            }
+            firstNameOrder = cached;
+            firstNameRows = newSize;
+        }
+        size = newSize;
+        modCount++;
+    }
+
+    // Put the view in first-name order. The order is cached, so only the rows appended since
+    // the last call are sorted; each is binary-searched into the cached order and the old runs
+    // between insertion points are copied across without comparing them again.
+    public void sortByFirstName() {
+        if (firstNameRows < size) {
+            firstNameOrder = merge(firstNameOrder, sortedRows(firstNameRows, size, FIRST_NAME, false));
+            firstNameRows = size;
+        }
+        System.arraycopy(firstNameOrder, 0, order, 0, size);
+        modCount++;
+    }
+
+    private int compareFirstNames(int row, int other) {
+        return compare(row, other, FIRST_NAME);
+    }
+
+    // All rows in the order of the given keys, ties in row order. The view's own order is left
+    // alone, so any number of orders can be kept side by side and shown through view(rows).
+    public int[] orderBy(boolean parallel, PersonSortKey... keys) {
+        return sortedRows(0, size, keys, parallel);
+    }
+
+    // A read-only list of the people in the given rows, in that order
+    public List<Person> view(int[] rows) {
+        return new AbstractList<Person>() {
+            @Override
+            public Person get(int index) {
+                return new Person(PersonTable.this, rows[index]);
+            }
+
+            @Override
+            public int size() {
+                return rows.length;
+            }
+        };
+    }
+
+    // Compare two rows key by key on the folded keys and ids, then by row
+    private int compare(int row, int other, PersonSortKey[] keys) {
+        for (PersonSortKey key : keys) {
+            int result;
+            switch (key) {
+                case FIRST_NAME:
+                    result = firstNameKeys.compare(row, other);
+                    break;
+                case LAST_NAME:
+                    result = lastNameKeys.compare(row, other);
+                    break;
+                default:
+                    result = Integer.compare(ids[row], ids[other]);
+                    break;
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(row, other);
+    }
+
+    // Rows from..to-1 in the order of the given keys
+    private int[] sortedRows(int from, int to, PersonSortKey[] keys, boolean parallel) {
+        int[] rows = new int[to - from];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = from + i;
+        }
+        sortRange(rows, new long[rows.length], 0, rows.length, keys, 0, 0, parallel);
+        return rows;
+    }
+
+    // Put rows[from..to-1], which agree on the keys before keys[key] and on that key's first
+    // 2 * depth chars, in order. Each row is packed into a long with the key's next two chars, or
+    // the whole id, above the row number, so the work is a primitive sort that may run in
+    // parallel; rows still tied are then ordered by the following chars or keys the same way.
+    private void sortRange(int[] rows, long[] packed, int from, int to, PersonSortKey[] keys, int key, int depth,
+            boolean parallel) {
+        if (to - from < 2 || key == keys.length) {
+            // Rows tied on every key are already in row order
+            return;
+        }
+        if (to - from <= 16) {
+            sortRun(rows, from, to, keys);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            packed[i] = (long) digit(rows[i], keys[key], depth) << 32 | rows[i];
+        }
+        if (parallel) {
+            Arrays.parallelSort(packed, from, to);
+        } else {
+            Arrays.sort(packed, from, to);
+        }
+        for (int i = from; i < to; i++) {
+            rows[i] = (int) packed[i];
+        }
+        // Runs of rows with the same digit cover disjoint ranges of rows and packed, so each can
+        // be ordered as soon as it is found, or side by side when sorting in parallel
+        int[] runs = parallel ? new int[16] : null;
+        int runCount = 0;
+        for (int start = from, end; start < to; start = end) {
+            end = start + 1;
+            while (end < to && packed[end] >> 32 == packed[start] >> 32) {
+                end++;
+            }
+            if (end - start < 2) {
+                continue;
+            }
+            if (!parallel) {
+                sortTies(rows, packed, start, end, keys, key, depth);
+                continue;
+            }
+            if (runCount * 2 == runs.length) {
+                runs = Arrays.copyOf(runs, runs.length * 2);
+            }
+            runs[runCount * 2] = start;
+            runs[runCount * 2 + 1] = end;
+            runCount++;
+        }
+        if (parallel) {
+            int[] found = runs;
+            IntStream.range(0, runCount).parallel().forEach(r ->
+                    sortTies(rows, packed, found[r * 2], found[r * 2 + 1], keys, key, depth));
+        }
+    }
+
+    // Order a run of rows that share the digit at this depth of keys[key]
+    private void sortTies(int[] rows, long[] packed, int from, int to, PersonSortKey[] keys, int key, int depth) {
+        if (keys[key] == PersonSortKey.ID) {
+            sortRange(rows, packed, from, to, keys, key + 1, 0, false);
+            return;
+        }
+        FoldedKeyColumn column = keys[key] == PersonSortKey.FIRST_NAME ? firstNameKeys : lastNameKeys;
+        int length = column.length(rows[from]);
+        boolean sameLength = true;
+        boolean ended = true;
+        for (int i = from; i < to; i++) {
+            int rowLength = column.length(rows[i]);
+            sameLength &= rowLength == length;
+            ended &= rowLength <= 2 * (depth + 1);
+        }
+        if (!ended) {
+            sortRange(rows, packed, from, to, keys, key, depth + 1, false);
+        } else if (sameLength) {
+            // Same chars and same length, so the same key
+            sortRange(rows, packed, from, to, keys, key + 1, 0, false);
+        } else {
+            // Keys padded to the same chars but of different lengths can only differ in trailing
+            // NUL chars; leave those to the full comparison
+            sortRun(rows, from, to, keys);
+        }
+    }
+
+    // Next two chars of a name key from the given depth, or the whole id, ordered like the key
+    // when compared as signed ints
+    private int digit(int row, PersonSortKey key, int depth) {
+        switch (key) {
+            case FIRST_NAME:
+                return firstNameKeys.charPair(row, 2 * depth) ^ Integer.MIN_VALUE;
+            case LAST_NAME:
+                return lastNameKeys.charPair(row, 2 * depth) ^ Integer.MIN_VALUE;
+            default:
+                return ids[row];
+        }
+    }
+
+    // Sort rows[from..to-1] by comparing the full keys: insertion sort for short runs,
+    // otherwise a merge sort
+    private void sortRun(int[] rows, int from, int to, PersonSortKey[] keys) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int row = rows[i];
+                int j = i - 1;
+                while (j >= from && compare(rows[j], row, keys) > 0) {
+                    rows[j + 1] = rows[j];
+                    j--;
+                }
+                rows[j + 1] = row;
+            }
+            return;
+        }
+        mergeSort(rows, new int[(to - from + 1) / 2], from, to, keys);
+    }
+
+    private void mergeSort(int[] rows, int[] scratch, int from, int to, PersonSortKey[] keys) {
+        if (to - from <= 16) {
+            sortRun(rows, from, to, keys);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(rows, scratch, from, mid, keys);
+        mergeSort(rows, scratch, mid, to, keys);
+        if (compare(rows[mid - 1], rows[mid], keys) <= 0) {
+            return;
+        }
+        System.arraycopy(rows, from, scratch, 0, mid - from);
+        int left = 0;
+        int leftEnd = mid - from;
+        int right = mid;
+        int out = from;
+        while (left < leftEnd && right < to) {
+            rows[out++] = compare(scratch[left], rows[right], keys) <= 0 ? scratch[left++] : rows[right++];
+        }
+        System.arraycopy(scratch, left, rows, out, leftEnd - left);
+    }
+
+    private int[] merge(int[] sorted, int[] added) {
+        int[] merged = new int[sorted.length + added.length];
+        int from = 0;
+        int out = 0;
+        for (int row : added) {
+            int at = insertionPoint(sorted, from, row);
+            System.arraycopy(sorted, from, merged, out, at - from);
+            out += at - from;
+            from = at;
+            merged[out++] = row;
+        }
+        System.arraycopy(sorted, from, merged, out, sorted.length - from);
+        return merged;
+    }
+
+    // First position in sorted[from..] whose row orders after the given row
+    private int insertionPoint(int[] sorted, int from, int row) {
+        int low = from;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareFirstNames(sorted[mid], row) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    int getId(int row) {
+        return ids[row];
+    }
+
+    String getFirstName(int row) {
+        return firstNames.get(row);
+    }
+
+    String getLastName(int row) {
+        return lastNames.get(row);
+    }
+
+    String getEmail(int row) {
+        return emails.get(row);
+    }
+
+    String getGender(int row) {
+        return genders.get(row);
+    }
+}
+
+// Keys people can be sorted on, compared case-insensitively for names
+enum PersonSortKey {
+    FIRST_NAME("First Name"),
+    LAST_NAME("Last Name"),
+    ID("ID");
+
+    private final String description;
+
+    PersonSortKey(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
+
+// Person attributes with a secondary index
+enum PersonAttribute {
+    GENDER("Gender"),
+    EMAIL_DOMAIN("Email Domain");
+
+    private final String description;
+
+    PersonAttribute(String description) {
+        this.description = description;
     }
 
     @Override
     public String toString() {
-        return String.format("Person [ID: %d, First Name: %s, Last Name: %s, Email: %s, Gender: %s]", id, firstName, lastName, email, gender);
+        return description;
     }
 }
 
-enum MenuOption {
+enum PeopleMenuOption {
     VIEW_PEOPLE("View People"),
     SORT_PEOPLE("Sort People"),
     SEARCH_PEOPLE("Search People"),
     ADD_NEW_PERSON("Add New Person"),
     GENERATE_RANDOM_PEOPLE("Generate Random People"),
+    COUNT_PEOPLE("Count People by Gender and Email Domain"),
+    EXPORT_PEOPLE("Export People to a Compressed File"),
     EXIT("Exit");
 
     private final String description;
 
-    MenuOption(String description) {
+    PeopleMenuOption(String description) {
         this.description = description;
     }
 
@@ -66,41 +515,291 @@ enum MenuOption {
         return description;
     }
 
-    public static MenuOption fromInt(int optionNumber) {
-        return MenuOption.values()[optionNumber - 1];
+    public static PeopleMenuOption fromInt(int optionNumber) {
+        return PeopleMenuOption.values()[optionNumber - 1];
     }
 }
 
 public class tempCodeRunnerFile {
-    private List<Person> people;
+    // People shown per page when viewing, sorting or searching
+    private static final int PAGE_SIZE = 20;
+    // Sorts of at least this many people use every core
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+
+    private PersonTable people;
+    private NameIndex<Person> nameIndex;
+    private AttributeIndex<PersonAttribute> attributes;
+    private IdAllocator ids;
+    // Rows already imported, so re-reading a file or an overlapping export adds nobody twice
+    private Deduplicator imports;
+    // The file being followed for changes, or null
+    private WatchedFile watched;
+    // People given a fresh id by the current import because theirs was taken or out of range
+    private int renumbered;
 
     public tempCodeRunnerFile() {
-        people = new ArrayList<>();
+        this(false);
+    }
+
+    public tempCodeRunnerFile(boolean findNearDuplicates) {
+        people = new PersonTable();
+        nameIndex = new NameIndex<>();
+        attributes = new AttributeIndex<>(PersonAttribute.class);
+        ids = new IdAllocator();
+        imports = new Deduplicator(findNearDuplicates);
     }
 
-    // Read the file and initialize data
+    // Read the file and initialize data; the file may be a Club_Form CSV file or an archive
+    // written by Export People
     private void readFile(String filename) {
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String line;
+        try {
+            if (RosterArchive.isArchive(filename)) {
+                readArchive(filename);
+            } else {
+                readRows(filename, 0, -1, null);
+            }
+            System.out.println("File read successfully.");
+            System.out.print(imports.summary());
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+        }
+    }
+
+    // Import the rows that start in [start, end), skipping the header when reading from the
+    // start of the file; the watched file, if given, records where each row came from
+    private int readRows(String filename, long start, long end, WatchedFile watched) throws IOException {
+        int before = people.size();
+        try (MappedCsvReader reader = new MappedCsvReader(filename, start, end)) {
             // Skip the header line
-            br.readLine();
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
+            boolean[] header = {start == 0};
+            int[] malformed = {0};
+            reader.forEach(row -> {
+                if (watched != null) {
+                    watched.checkpoint(row.position(), people.size());
+                }
+                if (header[0]) {
+                    header[0] = false;
+                    return;
+                }
+                // A row without exactly id,first_name,last_name,email,gender is not a person
+                if (row.fieldCount() != 5) {
+                    malformed[0]++;
+                    return;
+                }
                 // Create a Person object and add it to the list
-                int id = Integer.parseInt(data[0]);
-                String firstName = data[1];
-                String lastName = data[2];
-                String email = data[3];
-                String gender = data[4];
-                Person person = new Person(id, firstName, lastName, email, gender);
-                people.add(person);
+                Person person = importPerson(row.intField(0), row.field(1), row.field(2), row.field(3), row.field(4));
+                if (person != null && watched != null) {
+                    watched.fileRows.set(person.getRow());
+                }
+            });
+            if (malformed[0] > 0) {
+                System.out.println("Skipped " + malformed[0] + " rows that did not have 5 fields.");
+            }
+        }
+        reportRenumbered();
+        return people.size() - before;
+    }
+
+    // Import every person in an archive written by Export People, block by block
+    private int readArchive(String filename) throws IOException {
+        int before = people.size();
+        try (RosterArchive.Reader reader = new RosterArchive.Reader(filename)) {
+            reader.forEach(this::importPerson);
+        }
+        reportRenumbered();
+        return people.size() - before;
+    }
+
+    // Add a person read from a file, or return null if the same name and email were imported
+    // before. A different person under an id already taken or out of range gets a fresh one.
+    private Person importPerson(int id, String firstName, String lastName, String email, String gender) {
+        if (!imports.add(firstName + " " + lastName, email)) {
+            return null;
+        }
+        int claimed = ids.claim(id);
+        if (claimed != id) {
+            renumbered++;
+        }
+        return addPerson(claimed, firstName, lastName, email, gender);
+    }
+
+    private void reportRenumbered() {
+        if (renumbered > 0) {
+            System.out.println("Gave new ids to " + renumbered + " people whose ids were already taken or out of range.");
+            renumbered = 0;
+        }
+    }
+
+    // Write every person, in the order they were added, to an archive readFile can load
+    public long exportPeople(String filename) throws IOException {
+        try (RosterArchive.Writer out = new RosterArchive.Writer(filename)) {
+            for (int row = 0; row < people.size(); row++) {
+                out.person(people.getId(row), people.getFirstName(row), people.getLastName(row),
+                        people.getEmail(row), people.getGender(row));
+            }
+        }
+        return Files.size(Paths.get(filename));
+    }
+
+    // Ask for a filename and export everyone to it
+    private void exportPeople(Scanner scanner) {
+        scanner.nextLine(); // Consume newline left over
+        System.out.print("Enter the filename to export to: ");
+        String filename = scanner.nextLine().trim();
+        try {
+            long size = exportPeople(filename);
+            System.out.println("\nExported " + people.size() + " people to " + filename + " (" + size + " bytes).");
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error writing file: " + e.getMessage());
+        }
+    }
+
+    // Load the file, then keep following it: lines appended to it are imported as they come,
+    // and an edit re-reads the file only from the checkpoint before the first changed block
+    private void watchFile(String filename) {
+        try {
+            if (RosterArchive.isArchive(filename)) {
+                System.out.println("Archives are read once rather than watched.");
+                readFile(filename);
+                return;
+            }
+            watched = new WatchedFile(filename);
+            watched.tailer.update(watched);
+            System.out.println("File read successfully. Watching " + filename + " for changes.");
+            System.out.println("Note: an edit saved in place at the same time as new lines are added at the end"
+                    + " is not picked up; save edits on their own, or from an editor that writes a new file.");
+            System.out.print(imports.summary());
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+        }
+    }
+
+    // Apply changes to the watched file made since the last check
+    private void pollWatchedFile() {
+        if (watched == null) {
+            return;
+        }
+        try {
+            if (watched.poll()) {
+                System.out.println("\n" + watched.filename + " changed: removed " + watched.removed
+                        + " people and read " + watched.added + ".");
+                System.out.print(imports.summary());
             }
-            System.out.println("File read successfully.");
         } catch (IOException e) {
             System.err.println("Error reading file: " + e.getMessage());
         }
     }
 
+    private void stopWatching() {
+        if (watched == null) {
+            return;
+        }
+        try {
+            watched.tailer.close();
+        } catch (IOException e) {
+            System.err.println("Error closing file watch: " + e.getMessage());
+        }
+        watched = null;
+    }
+
+    // Take the people from the given row on out of the table and every index, newest first.
+    // People who did not come from the file are returned, oldest first, to be added back.
+    private List<Person> removeRowsFrom(int row, BitSet fileRows) {
+        PersonTable removed = new PersonTable();
+        for (int r = people.size() - 1; r >= row; r--) {
+            Person person = new Person(people, r);
+            attributes.remove(r, PersonAttribute.EMAIL_DOMAIN, emailDomain(person.getEmail()));
+            attributes.remove(r, PersonAttribute.GENDER, person.getGender());
+            nameIndex.remove(person.getLastName(), person);
+            nameIndex.remove(person.getFirstName(), person);
+            ids.release(person.getId());
+            if (fileRows.get(r)) {
+                imports.remove(person.getFirstName() + " " + person.getLastName(), person.getEmail());
+            } else {
+                removed.add(person);
+            }
+        }
+        fileRows.clear(row, Math.max(row, people.size()));
+        people.truncate(row);
+        List<Person> kept = new ArrayList<>(removed);
+        Collections.reverse(kept);
+        return kept;
+    }
+
+    // The file being followed, with a checkpoint at least every block: where a row started and
+    // how many people there were before it, so a change can be re-read from the row before it
+    private final class WatchedFile implements FileTailer.Listener {
+        final String filename;
+        final FileTailer tailer;
+        // Rows read from the file, as opposed to added or generated
+        final BitSet fileRows = new BitSet();
+        private long[] offsets = new long[16];
+        private int[] rows = new int[16];
+        private int checkpoints;
+        // People not from the file taken out by a rewind, to be added back after the re-read
+        private List<Person> restore = Collections.emptyList();
+        // People taken out and read in by the latest poll
+        int removed;
+        int added;
+
+        WatchedFile(String filename) throws IOException {
+            this.filename = filename;
+            this.tailer = new FileTailer(filename);
+        }
+
+        void checkpoint(long offset, int row) {
+            if (checkpoints > 0 && offset < offsets[checkpoints - 1] + FileTailer.BLOCK_SIZE) {
+                return;
+            }
+            if (checkpoints == offsets.length) {
+                offsets = Arrays.copyOf(offsets, checkpoints * 2);
+                rows = Arrays.copyOf(rows, checkpoints * 2);
+            }
+            offsets[checkpoints] = offset;
+            rows[checkpoints] = row;
+            checkpoints++;
+        }
+
+        @Override
+        public long rewind(long offset) {
+            // The latest checkpoint at or before the offset; it is recorded again when re-read
+            int c = checkpoints - 1;
+            while (c > 0 && offsets[c] > offset) {
+                c--;
+            }
+            if (c < 0) {
+                return 0;
+            }
+            checkpoints = c;
+            int before = people.size();
+            restore = removeRowsFrom(rows[c], fileRows);
+            removed += before - people.size() - restore.size();
+            return offsets[c];
+        }
+
+        @Override
+        public void read(long start, long end) throws IOException {
+            added += readRows(filename, start, end, this);
+        }
+
+        // Check the file and apply its changes, then add back anyone a rewind took out
+        boolean poll() throws IOException {
+            removed = 0;
+            added = 0;
+            boolean changed = tailer.poll(this);
+            restore();
+            return changed;
+        }
+
+        private void restore() {
+            for (Person person : restore) {
+                addPerson(ids.claim(person.getId()), person.getFirstName(), person.getLastName(), person.getEmail(),
+                        person.getGender());
+            }
+            restore = Collections.emptyList();
+        }
+    }
+
     // Display the menu and handle user input
     private void displayMenu() {
         Scanner scanner = new Scanner(System.in);
@@ -108,25 +807,27 @@ public class tempCodeRunnerFile {
 
         while (!exit) {
             System.out.println("\nMenu:");
-            for (MenuOption option : MenuOption.values()) {
+            for (PeopleMenuOption option : PeopleMenuOption.values()) {
                 System.out.println((option.ordinal() + 1) + ". " + option);
             }
 
             System.out.print("Choose an option: ");
             int choice = scanner.nextInt();
+            // Pick up edits to the file made while waiting, before acting on them
+            pollWatchedFile();
 
-            if (choice < 1 || choice > MenuOption.values().length) {
+            if (choice < 1 || choice > PeopleMenuOption.values().length) {
                 System.out.println("Invalid choice. Please try again.");
                 continue;
             }
 
-            MenuOption selectedOption = MenuOption.fromInt(choice);
+            PeopleMenuOption selectedOption = PeopleMenuOption.fromInt(choice);
             switch (selectedOption) {
                 case VIEW_PEOPLE:
-                    viewPeople();
+                    viewPeople(scanner);
                     break;
                 case SORT_PEOPLE:
-                    sortPeople();
+                    sortPeople(scanner);
                     break;
                 case SEARCH_PEOPLE:
                     searchPeople(scanner);
@@ -135,10 +836,17 @@ public class tempCodeRunnerFile {
                     addNewPerson(scanner);
                     break;
                 case GENERATE_RANDOM_PEOPLE:
-                    generateRandomPeople();
+                    generateRandomPeople(scanner);
+                    break;
+                case COUNT_PEOPLE:
+                    countPeople(scanner);
+                    break;
+                case EXPORT_PEOPLE:
+                    exportPeople(scanner);
                     break;
                 case EXIT:
                     exit = true;
+                    stopWatching();
                     System.out.println("Exiting. Goodbye!");
                     break;
             }
@@ -146,20 +854,64 @@ public class tempCodeRunnerFile {
     }
 
     // View all people
-    private void viewPeople() {
+    private void viewPeople(Scanner scanner) {
+        scanner.nextLine(); // Consume newline left over
         System.out.println("\nPeople:");
-        for (Person person : people) {
-            System.out.println(person);
+        showPeople(scanner, people);
+    }
+
+    // Sort people by first name, or show them in another order without changing the list
+    private void sortPeople(Scanner scanner) {
+        scanner.nextLine(); // Consume newline left over
+        System.out.print("Sort by first, last and id in any order, e.g. 'last, first, id' (blank for first name): ");
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            sortPeople();
+            System.out.println("\nPeople sorted by first name:");
+            showPeople(scanner, people);
+            return;
+        }
+        String[] words = input.split("\\s*,\\s*");
+        PersonSortKey[] keys = new PersonSortKey[words.length];
+        for (int i = 0; i < words.length; i++) {
+            keys[i] = sortKey(words[i]);
+            if (keys[i] == null) {
+                System.out.println("Unknown sort key '" + words[i] + "'.");
+                return;
+            }
+        }
+        System.out.println("\nPeople sorted by " + Arrays.toString(keys) + ":");
+        showPeople(scanner, sortedPeople(keys));
+    }
+
+    private static PersonSortKey sortKey(String word) {
+        switch (word.toLowerCase(Locale.ROOT)) {
+            case "first":
+            case "first name":
+                return PersonSortKey.FIRST_NAME;
+            case "last":
+            case "last name":
+                return PersonSortKey.LAST_NAME;
+            case "id":
+                return PersonSortKey.ID;
+            default:
+                return null;
         }
     }
 
     // Sort people by first name
     private void sortPeople() {
-        people.sort((p1, p2) -> p1.getFirstName().compareToIgnoreCase(p2.getFirstName()));
-        System.out.println("\nPeople sorted by first name:");
-        for (Person person : people) {
-            System.out.println(person);
-        }
+        people.sortByFirstName();
+    }
+
+    // The people in the order of the given keys, as a new view; the list keeps its own order
+    public List<Person> sortedPeople(PersonSortKey... keys) {
+        return people.view(people.orderBy(people.size() >= PARALLEL_SORT_THRESHOLD, keys));
+    }
+
+    // Show a page of people at a time
+    private void showPeople(Scanner scanner, List<Person> view) {
+        new Pager<>(view, PAGE_SIZE).browse(scanner, (index, person, out) -> person.appendTo(out));
     }
 
     // Search people by first name or last name
@@ -167,16 +919,102 @@ public class tempCodeRunnerFile {
         scanner.nextLine(); // Consume newline left over
         System.out.print("Enter the first name or last name to search: ");
         String searchName = scanner.nextLine();
-        boolean found = false;
-        for (Person person : people) {
-            if (person.getFirstName().equalsIgnoreCase(searchName) || person.getLastName().equalsIgnoreCase(searchName)) {
-                System.out.println(person);
-                found = true;
+        List<Person> found = search(searchName);
+        if (found.isEmpty()) {
+            // Fall back to names a typo or two away
+            found = searchFuzzy(searchName, NameIndex.typoBound(searchName));
+            if (found.isEmpty()) {
+                System.out.println("\nPerson not found.");
+                return;
             }
+            System.out.println("\nNo exact match for '" + searchName + "'. Closest names:");
         }
+        showPeople(scanner, found);
+    }
+
+    // Return the people whose first name or last name matches, ignoring case
+    public List<Person> search(String name) {
+        return nameIndex.exact(name);
+    }
 
-        if (!found) {
-            System.out.println("\nPerson not found.");
+    // Return the people with a first or last name starting with the given prefix
+    public List<Person> searchPrefix(String prefix) {
+        return nameIndex.prefix(prefix);
+    }
+
+    // Return the people with a first or last name containing the given word
+    public List<Person> searchToken(String word) {
+        return nameIndex.token(word);
+    }
+
+    // Return the people with a first or last name within maxDistance edits, closest first
+    public List<Person> searchFuzzy(String name, int maxDistance) {
+        return nameIndex.fuzzy(name, maxDistance);
+    }
+
+    // Add a person to the table and index both of their names
+    private Person addPerson(int id, String firstName, String lastName, String email, String gender) {
+        Person person = people.append(id, firstName, lastName, email, gender);
+        nameIndex.add(firstName, person);
+        nameIndex.add(lastName, person);
+        attributes.add(person.getRow(), PersonAttribute.GENDER, gender);
+        attributes.add(person.getRow(), PersonAttribute.EMAIL_DOMAIN, emailDomain(email));
+        return person;
+    }
+
+    // The part of an email address after the @, in lower case
+    static String emailDomain(String email) {
+        return email.substring(email.lastIndexOf('@') + 1).trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Return the people matching every condition, in the order they were added
+    public List<Person> findPeople(Map<PersonAttribute, String> conditions) {
+        int[] rows = attributes.filter(normalize(conditions), people.size());
+        List<Person> found = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            found.add(new Person(people, row));
+        }
+        return found;
+    }
+
+    // Count the people matching every condition, e.g. Female with a gmail.com address
+    public int countPeople(Map<PersonAttribute, String> conditions) {
+        return attributes.count(normalize(conditions), people.size());
+    }
+
+    // Count the people matching every condition for each value of one attribute
+    public Map<String, Integer> countPeopleBy(PersonAttribute groupBy, Map<PersonAttribute, String> conditions) {
+        return attributes.countBy(groupBy, normalize(conditions), people.size());
+    }
+
+    // Email domains are indexed in lower case; accept them as typed
+    private static Map<PersonAttribute, String> normalize(Map<PersonAttribute, String> conditions) {
+        String domain = conditions.get(PersonAttribute.EMAIL_DOMAIN);
+        if (domain == null) {
+            return conditions;
+        }
+        Map<PersonAttribute, String> normalized = new EnumMap<>(conditions);
+        normalized.put(PersonAttribute.EMAIL_DOMAIN, emailDomain(domain));
+        return normalized;
+    }
+
+    // Ask for a gender and an email domain, then count the matches in total and per gender
+    private void countPeople(Scanner scanner) {
+        scanner.nextLine(); // Consume newline left over
+        Map<PersonAttribute, String> conditions = new EnumMap<>(PersonAttribute.class);
+        System.out.print("Gender " + attributes.values(PersonAttribute.GENDER) + " (blank for any): ");
+        String gender = scanner.nextLine().trim();
+        if (!gender.isEmpty()) {
+            conditions.put(PersonAttribute.GENDER, gender);
+        }
+        System.out.print("Email domain (blank for any): ");
+        String domain = scanner.nextLine().trim();
+        if (!domain.isEmpty()) {
+            conditions.put(PersonAttribute.EMAIL_DOMAIN, domain);
+        }
+        System.out.println("Matching people: " + countPeople(conditions));
+        for (Map.Entry<String, Integer> group : countPeopleBy(PersonAttribute.GENDER, conditions).entrySet()) {
+            System.out.println("  " + group.getKey() + ": " + group.getValue());
         }
     }
 
@@ -192,21 +1030,44 @@ public class tempCodeRunnerFile {
         System.out.print("Please enter the gender (Male/Female): ");
         String gender = scanner.nextLine();
 
-        // Generate a random ID based on the size of the list
-        int id = people.size() + 1;
+        // Take the next id that no one has used
+        int id = ids.next();
 
         // Create a new person object and add it to the list
-        Person newPerson = new Person(id, firstName, lastName, email, gender);
-        people.add(newPerson);
+        addPerson(id, firstName, lastName, email, gender);
         System.out.println("\nNew person added successfully.");
     }
 
+    // Ask how many people to generate: a blank count shows five random people as before,
+    // a count generates that many from a seed without printing them
+    private void generateRandomPeople(Scanner scanner) {
+        scanner.nextLine(); // Consume newline left over
+        System.out.print("How many people (blank for 5)? ");
+        String count = scanner.nextLine().trim();
+        if (count.isEmpty()) {
+            generateRandomPeople();
+            return;
+        }
+        System.out.print("Seed (blank for random): ");
+        String seed = scanner.nextLine().trim();
+        try {
+            int people = Integer.parseInt(count);
+            if (people < 1) {
+                System.out.println("Please enter a count of at least 1.");
+                return;
+            }
+            generateRandomPeople(people, seed.isEmpty() ? System.nanoTime() : Long.parseLong(seed));
+        } catch (NumberFormatException e) {
+            System.out.println("Please enter whole numbers for the count and seed.");
+        }
+    }
+
     // Generate random people
     private void generateRandomPeople() {
-        Random random = new Random();
-        String[] firstNames = {"John", "David", "Michael", "Chris", "Daniel", "Paul", "Sarah", "Jessica", "Emily", "Samantha"};
-        String[] lastNames = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Davis", "Miller", "Wilson", "Moore", "Taylor"};
-        String[] genders = {"Male", "Female"};
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] firstNames = RosterGenerator.FIRST_NAMES;
+        String[] lastNames = RosterGenerator.LAST_NAMES;
+        String[] genders = RosterGenerator.GENDERS;
 
         System.out.println("\nGenerating random people:");
         for (int i = 0; i < 5; i++) {
@@ -215,23 +1076,40 @@ public class tempCodeRunnerFile {
             String lastName = lastNames[random.nextInt(lastNames.length)];
             String email = firstName.toLowerCase() + "." + lastName.toLowerCase() + "@example.com";
             String gender = genders[random.nextInt(genders.length)];
-            int id = people.size() + 1;
+            int id = ids.next();
 
             // Create a new person object and add it to the list
-            Person randomPerson = new Person(id, firstName, lastName, email, gender);
-            people.add(randomPerson);
+            Person randomPerson = addPerson(id, firstName, lastName, email, gender);
             System.out.println(randomPerson);
         }
     }
 
+    // Generate count people from a seed without printing them
+    private void generateRandomPeople(int count, long seed) {
+        new RosterGenerator(seed, true).people(count, ids.reserve(count), this::addPerson);
+        System.out.printf("%nGenerated %d people.%n", count);
+    }
+
+    // Usage: java tempCodeRunnerFile [--watch [filename]]
     public static void main(String[] args) {
         try (Scanner scanner = new Scanner(System.in)) {
-            tempCodeRunnerFile game = new tempCodeRunnerFile();
+            tempCodeRunnerFile game = new tempCodeRunnerFile(true);
+            boolean watch = args.length > 0 && args[0].equals("--watch");
 
-            // Prompt user for filename
-            System.out.print("Please enter the filename to read: ");
-            String filename = scanner.nextLine();
-            game.readFile(filename);
+            String filename;
+            if (watch && args.length > 1) {
+                filename = args[1];
+            } else {
+                // Prompt user for filename
+                System.out.print("Please enter the filename to read: ");
+                filename = scanner.nextLine();
+            }
+            // With --watch, changes to the file are picked up while the program runs
+            if (watch) {
+                game.watchFile(filename);
+            } else {
+                game.readFile(filename);
+            }
 
             // Display the menu
             game.displayMenu();